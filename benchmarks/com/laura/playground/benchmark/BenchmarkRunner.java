@@ -0,0 +1,24 @@
+package com.laura.playground.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark, or those matching the regex given as the first argument, with the GC profiler attached so allocation
+ * rate (gc.alloc.rate.norm, bytes per op) is reported next to ops/s.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "com\\.laura\\.playground\\.benchmark\\..*Benchmark.*")
+                .addProfiler(GCProfiler.class);
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,143 @@
+package com.laura.playground.benchmark;
+
+import com.laura.playground.utils.world.MemoryBlockSource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.Cow;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Skeleton;
+import org.bukkit.entity.Zombie;
+
+/**
+ * Off-server stand-ins for the benchmarks: a proxied World and proxied entities that only answer what the trace code asks of
+ * them, and seeded synthetic terrain held in a {@link MemoryBlockSource}.
+ */
+public final class BenchmarkWorlds {
+    public static final int GROUND_Y = 64;
+    private static final List<Class<? extends Entity>> ENTITY_TYPES = List.of(Zombie.class, Cow.class, Skeleton.class, Player.class);
+
+    private BenchmarkWorlds() {
+    }
+
+    /**
+     * A world whose getEntities() returns the given list, and which has no blocks of its own (getBlockAt returns null).
+     */
+    public static World world(List<Entity> entities) {
+        UUID uid = UUID.randomUUID();
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getUID":
+                    return uid;
+                case "getEntities":
+                    return new ArrayList<Entity>(entities);
+                case "getMinHeight":
+                    return -64;
+                case "getMaxHeight":
+                    return 320;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "BenchmarkWorld(" + uid + ")";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        };
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class}, handler);
+    }
+
+    /**
+     * Flat ground at {@link #GROUND_Y} with solid blocks scattered above it at the given density (0 to 1), seeded so every run
+     * sees the same terrain.
+     */
+    public static MemoryBlockSource terrain(World world, int radius, int height, double density, long seed) {
+        MemoryBlockSource source = new MemoryBlockSource(world);
+        source.fill(-radius, GROUND_Y - 1, -radius, radius, GROUND_Y - 1, radius, Material.STONE);
+        Random random = new Random(seed);
+
+        for (int x = -radius; x <= radius; x++) {
+            for (int y = GROUND_Y; y < GROUND_Y + height; y++) {
+                for (int z = -radius; z <= radius; z++) {
+                    if (random.nextDouble() < density) {
+                        source.set(x, y, z, Material.STONE);
+                    }
+                }
+            }
+        }
+
+        return source;
+    }
+
+    /**
+     * Entities of a mix of types, scattered over the given radius on the ground. Entity locations carry no world, only their coordinates are read.
+     */
+    public static List<Entity> entities(int count, int radius, long seed) {
+        List<Entity> entities = new ArrayList<Entity>(count);
+        Random random = new Random(seed);
+
+        for (int i = 0; i < count; i++) {
+            double x = random.nextDouble() * radius * 2.0D - radius;
+            double z = random.nextDouble() * radius * 2.0D - radius;
+            entities.add(entity(ENTITY_TYPES.get(i % ENTITY_TYPES.size()), new Location(null, x, GROUND_Y, z)));
+        }
+
+        return entities;
+    }
+
+    public static Entity entity(Class<? extends Entity> type, Location location) {
+        UUID uuid = UUID.randomUUID();
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getLocation":
+                    return location.clone();
+                case "getUniqueId":
+                    return uuid;
+                case "isAdult":
+                case "isValid":
+                    return true;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return type.getSimpleName() + "(" + location + ")";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        };
+        return (Entity) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return '\0';
+        } else if (type == float.class) {
+            return 0.0F;
+        } else if (type == double.class) {
+            return 0.0D;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.laura.playground.benchmark;
+
+import com.laura.playground.utils.EntityHitBox;
+import com.laura.playground.utils.EntityIndex;
+import com.laura.playground.utils.LineTrace;
+import com.laura.playground.utils.LineTraceResults;
+import com.laura.playground.utils.TraceMode;
+import com.laura.playground.utils.Tracker;
+import com.laura.playground.utils.world.MemoryBlockSource;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityHitBoxBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int entityCount;
+
+    @Param({"32"})
+    public double distance;
+
+    private List<Entity> entities;
+    private World world;
+    private MemoryBlockSource blockSource;
+    private Location start;
+    private Location end;
+
+    @Setup
+    public void setup() {
+        this.entities = BenchmarkWorlds.entities(this.entityCount, 64, 7L);
+        this.world = BenchmarkWorlds.world(this.entities);
+        this.blockSource = new MemoryBlockSource(this.world);
+        this.start = new Location(this.world, 0.5D, BenchmarkWorlds.GROUND_Y + 1.0D, 0.5D, -30.0F, 0.0F);
+        this.end = this.start.clone().add(this.start.getDirection().multiply(this.distance));
+    }
+
+    @Benchmark
+    public void hitCheckPoint(Blackhole blackhole) {
+        for (Entity entity : this.entities) {
+            blackhole.consume(EntityHitBox.hitCheck(this.end, entity));
+        }
+    }
+
+    @Benchmark
+    public void intersectSegment(Blackhole blackhole) {
+        for (Entity entity : this.entities) {
+            blackhole.consume(EntityHitBox.intersect(this.start, this.end, entity));
+        }
+    }
+
+    /**
+     * Steady state within a tick, the entity index is only rebuilt on the first invocation.
+     */
+    @Benchmark
+    public LineTraceResults traceEntities() {
+        return LineTrace.lineTrace(this.start, this.end, 8)
+                .mode(TraceMode.VOXEL)
+                .blockSource(this.blockSource)
+                .track(Tracker.ENTITIES)
+                .trace();
+    }
+
+    /**
+     * First trace of a tick, paying for the entity index rebuild.
+     */
+    @Benchmark
+    public LineTraceResults traceEntitiesWithRebuild() {
+        EntityIndex.refreshAll();
+        return this.traceEntities();
+    }
+}
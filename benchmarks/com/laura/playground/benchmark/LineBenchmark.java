@@ -0,0 +1,45 @@
+package com.laura.playground.benchmark;
+
+import com.laura.playground.utils.geometry.Line;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineBenchmark {
+
+    @Param({"16", "256", "1024"})
+    public int points;
+
+    private Location start;
+    private Location end;
+
+    @Setup
+    public void setup() {
+        this.start = new Location(null, 0.5D, 64.0D, 0.5D);
+        this.end = new Location(null, 40.25D, 71.5D, -12.75D);
+    }
+
+    @Benchmark
+    public List<Location> pointsAlongALine() {
+        return Line.pointsAlongALine(this.start, this.end, this.points);
+    }
+}
@@ -0,0 +1,76 @@
+package com.laura.playground.benchmark;
+
+import com.laura.playground.utils.LineTrace;
+import com.laura.playground.utils.LineTraceResults;
+import com.laura.playground.utils.TraceMode;
+import com.laura.playground.utils.Tracker;
+import com.laura.playground.utils.world.MemoryBlockSource;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineTraceBenchmark {
+
+    @Param({"8", "32", "128"})
+    public double distance;
+
+    @Param({"2", "8"})
+    public int pointsPerBlock;
+
+    @Param({"SAMPLED", "VOXEL"})
+    public TraceMode mode;
+
+    @Param({"0.0", "0.02", "0.2"})
+    public double terrainDensity;
+
+    private Location start;
+    private MemoryBlockSource blockSource;
+
+    @Setup
+    public void setup() {
+        World world = BenchmarkWorlds.world(Collections.emptyList());
+        this.blockSource = BenchmarkWorlds.terrain(world, 160, 24, this.terrainDensity, 42L);
+        this.start = new Location(world, 0.5D, BenchmarkWorlds.GROUND_Y + 1.62D, 0.5D, -30.0F, 5.0F);
+    }
+
+    @Benchmark
+    public LineTraceResults impact() {
+        return LineTrace.lineTrace(this.start, this.distance, this.pointsPerBlock)
+                .mode(this.mode)
+                .blockSource(this.blockSource)
+                .track(Tracker.IMPACT)
+                .ignoreMaterials(Material.AIR)
+                .trace();
+    }
+
+    @Benchmark
+    public LineTraceResults impactAndBlocks() {
+        return LineTrace.lineTrace(this.start, this.distance, this.pointsPerBlock)
+                .mode(this.mode)
+                .blockSource(this.blockSource)
+                .track(Tracker.IMPACT, Tracker.BLOCKS)
+                .ignoreMaterials(Material.AIR)
+                .trace();
+    }
+}
@@ -0,0 +1,63 @@
+package com.laura.playground.benchmark;
+
+import com.laura.playground.trajectory.Trajectory;
+import com.laura.playground.trajectory.TrajectoryResults;
+import com.laura.playground.utils.LocationUtils;
+import com.laura.playground.utils.world.MemoryBlockSource;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrajectoryBenchmark {
+
+    @Param({"SNOWBALL", "ENDER_PEARL", "ARROW", "SPLASH_POTION"})
+    public Trajectory.ProjectileType projectile;
+
+    /**
+     * The player's pitch, negative looking up, turned into the trajectory's launch angle the same way Playground does.
+     */
+    @Param({"-10", "-45"})
+    public float pitch;
+
+    @Param({"0.0", "0.02", "0.2"})
+    public double terrainDensity;
+
+    private Location eyeLocation;
+    private MemoryBlockSource blockSource;
+
+    @Setup
+    public void setup() {
+        World world = BenchmarkWorlds.world(Collections.emptyList());
+        this.blockSource = BenchmarkWorlds.terrain(world, 96, 24, this.terrainDensity, 42L);
+        this.eyeLocation = new Location(world, 0.5D, BenchmarkWorlds.GROUND_Y + 1.62D, 0.5D, LocationUtils.oppositeYaw(0.0F), LocationUtils.oppositePitch(this.pitch));
+    }
+
+    @Benchmark
+    public TrajectoryResults trace() {
+        return Trajectory.trajectory(this.eyeLocation, this.projectile)
+                .ignoreMaterials(Material.AIR)
+                .blockSource(this.blockSource)
+                .trace();
+    }
+}
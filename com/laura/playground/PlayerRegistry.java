@@ -0,0 +1,131 @@
+package com.laura.playground;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.bukkit.entity.Player;
+
+/**
+ * The {@link PlayerState} of every tracked player, keyed by UUID.
+ * <br>
+ * Backed by a {@link ConcurrentHashMap}, so lookups and iteration never lock and may run on any thread while the main thread
+ * adds and removes players. States are created once per player and then updated in place.
+ * <br>
+ * It also keeps the set of players currently {@link PlayerState#isAiming() aiming}, so the tick loop only visits them. Events
+ * that may change what a player holds {@link #markDirty mark} them, and {@link #refreshAimers} re-checks only those players
+ * at the start of the next tick, once the inventory change has been applied. Not every change fires an event, a command or
+ * another plugin may set the held item directly, so the tick loop also {@link #markIdle marks} every player not aiming now
+ * and then.
+ */
+public class PlayerRegistry {
+    private final ConcurrentHashMap<UUID, PlayerState> states = new ConcurrentHashMap<UUID, PlayerState>();
+    private final Set<PlayerState> aimers = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @return the player's state, or null if they are not tracked
+     */
+    public PlayerState get(UUID uuid) {
+        return this.states.get(uuid);
+    }
+
+    /**
+     * Returns the player's state, creating it if they are not tracked yet. Main thread only.
+     */
+    public PlayerState track(Player player) {
+        PlayerState state = this.states.computeIfAbsent(player.getUniqueId(), uuid -> new PlayerState(player));
+        if (state.getPlayer() != player) {
+            state.setPlayer(player);
+        }
+
+        return state;
+    }
+
+    public PlayerState remove(UUID uuid) {
+        this.dirty.remove(uuid);
+        PlayerState state = this.states.remove(uuid);
+        if (state != null) {
+            this.setAiming(state, false);
+        }
+
+        return state;
+    }
+
+    /**
+     * Tracks the player and has their held item re-checked by the next {@link #refreshAimers}. Main thread only.
+     */
+    public PlayerState markDirty(Player player) {
+        PlayerState state = this.track(player);
+        this.dirty.add(state.getUniqueId());
+        return state;
+    }
+
+    /**
+     * Has every player not currently aiming re-checked by the next {@link #refreshAimers}, catching held items changed without
+     * an event. Aimers need not be, the tick loop drops them as soon as they stop holding a projectile. Main thread only.
+     */
+    public void markIdle() {
+        for (PlayerState state : this.states.values()) {
+            if (!state.isAiming()) {
+                this.dirty.add(state.getUniqueId());
+            }
+        }
+    }
+
+    /**
+     * Re-checks every player marked since the last call, adding those the predicate accepts to the aimers and removing the
+     * rest, who also stop drawing. Main thread only.
+     */
+    public void refreshAimers(Predicate<Player> isAiming) {
+        Iterator<UUID> iterator = this.dirty.iterator();
+        while (iterator.hasNext()) {
+            PlayerState state = this.states.get(iterator.next());
+            iterator.remove();
+            if (state != null) {
+                this.setAiming(state, isAiming.test(state.getPlayer()));
+            }
+        }
+    }
+
+    /**
+     * A player who stops aiming also stops drawing, so a bow put away mid-draw does not resume drawing when next held.
+     */
+    public void setAiming(PlayerState state, boolean aiming) {
+        state.setAiming(aiming);
+        if (aiming) {
+            this.aimers.add(state);
+        } else {
+            state.stopDrawing();
+            this.aimers.remove(state);
+        }
+    }
+
+    /**
+     * @return a live, weakly consistent view of the players currently aiming
+     */
+    public Collection<PlayerState> getAimers() {
+        return Collections.unmodifiableSet(this.aimers);
+    }
+
+    /**
+     * @return a live, weakly consistent view of every state, safe to iterate while players are added or removed
+     */
+    public Collection<PlayerState> values() {
+        return this.states.values();
+    }
+
+    public int size() {
+        return this.states.size();
+    }
+
+    public void clear() {
+        this.states.clear();
+        this.aimers.clear();
+        this.dirty.clear();
+    }
+}
@@ -0,0 +1,122 @@
+package com.laura.playground;
+
+import com.laura.playground.trajectory.TrajectoryCache;
+import com.laura.playground.utils.ParticleScheduler;
+
+import java.util.UUID;
+
+import org.bukkit.entity.Player;
+
+/**
+ * Everything the plugin tracks about one player, kept in a {@link PlayerRegistry} and updated in place every tick.
+ * <br>
+ * Only the main thread writes to it. Every field is volatile, so worker threads may read a state at any time without copying
+ * it, and see each field as the main thread last left it.
+ */
+public final class PlayerState {
+    public static final int NOT_DRAWING = -1;
+
+    private final UUID uuid;
+    private volatile Player player;
+    private volatile boolean aiming;
+    private volatile int drawTicks;
+    private volatile TrajectoryCache.AimKey lastAim;
+    private volatile TrajectoryCache.Entry cached;
+    private volatile ParticleScheduler.Share share;
+
+    PlayerState(Player player) {
+        this.uuid = player.getUniqueId();
+        this.player = player;
+        this.drawTicks = NOT_DRAWING;
+    }
+
+    public UUID getUniqueId() {
+        return this.uuid;
+    }
+
+    public Player getPlayer() {
+        return this.player;
+    }
+
+    void setPlayer(Player player) {
+        this.player = player;
+    }
+
+    /**
+     * @return true if the player was holding a throwable when the {@link PlayerRegistry} last checked
+     */
+    public boolean isAiming() {
+        return this.aiming;
+    }
+
+    void setAiming(boolean aiming) {
+        this.aiming = aiming;
+    }
+
+    /**
+     * @return how many ticks the player has been drawing a bow for, or {@value #NOT_DRAWING} if they are not
+     */
+    public int getDrawTicks() {
+        return this.drawTicks;
+    }
+
+    public boolean isDrawing() {
+        return this.drawTicks != NOT_DRAWING;
+    }
+
+    void startDrawing() {
+        this.drawTicks = 0;
+    }
+
+    void stopDrawing() {
+        this.drawTicks = NOT_DRAWING;
+    }
+
+    /**
+     * Counts one more tick of drawing, up to maxTicks.
+     */
+    void advanceDraw(int maxTicks) {
+        if (this.drawTicks != NOT_DRAWING) {
+            this.drawTicks = Math.min(this.drawTicks + 1, maxTicks);
+        }
+    }
+
+    /**
+     * @return the aim the player's arc was last requested for, or null if they have not aimed yet
+     */
+    public TrajectoryCache.AimKey getLastAim() {
+        return this.lastAim;
+    }
+
+    /**
+     * @return the player's latest arc, whatever aim it was traced for, drawn while a trace of their current aim is pending.
+     *         This is the only place it is kept, the {@link TrajectoryCache} only holds arcs by aim
+     */
+    public TrajectoryCache.Entry getCached() {
+        return this.cached;
+    }
+
+    /**
+     * Replaces the latest arc with one just traced for the player.
+     */
+    void setCached(TrajectoryCache.Entry cached) {
+        this.cached = cached;
+    }
+
+    /**
+     * @return the share of this tick's particle budget the arc was granted, see {@link #getCached()}
+     */
+    public ParticleScheduler.Share getShare() {
+        return this.share;
+    }
+
+    void queue(TrajectoryCache.AimKey aim, TrajectoryCache.Entry cached, ParticleScheduler.Share share) {
+        this.lastAim = aim;
+        this.cached = cached;
+        this.share = share;
+    }
+
+    public String toString() {
+        return "PlayerState(uuid=" + this.uuid + ", aiming=" + this.aiming + ", drawTicks=" + this.drawTicks + ")";
+    }
+}
@@ -1,76 +1,130 @@
 package com.laura.playground;
 
+import com.laura.playground.trajectory.ShapeTable;
 import com.laura.playground.trajectory.Trajectory;
+import com.laura.playground.trajectory.TrajectoryCache;
+import com.laura.playground.trajectory.TrajectoryPipeline;
 import com.laura.playground.trajectory.TrajectoryResults;
 import com.laura.playground.utils.Ease;
+import com.laura.playground.utils.EntityIndex;
 import com.laura.playground.utils.LineTrace;
 import com.laura.playground.utils.LocationUtils;
 import com.laura.playground.utils.Mathsf;
-import com.laura.playground.utils.ParticleUtils;
+import com.laura.playground.utils.ParticleBatch;
+import com.laura.playground.utils.ParticleScheduler;
 import com.laura.playground.utils.geometry.Axis;
-import com.laura.playground.utils.geometry.Circle;
 import com.laura.playground.utils.geometry.Direction;
-import com.laura.playground.utils.geometry.Line;
+import com.laura.playground.utils.geometry.ImpactMarker;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.Map.Entry;
 
 import org.bukkit.Bukkit;
-import org.bukkit.Color;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.entity.EntityPickupItemEvent;
 import org.bukkit.event.entity.EntityShootBowEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
-import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.util.Vector;
 
 public final class Playground extends JavaPlugin implements Listener {
-    private static final Set<Player> players = new HashSet<Player>();
-    private static final Map<Player, Integer> drawnBows = new HashMap<Player, Integer>();
+    private static final PlayerRegistry registry = new PlayerRegistry();
+    private static final TrajectoryCache trajectoryCache = new TrajectoryCache();
+    private static final ParticleBatch particles = new ParticleBatch();
+    private static final ParticleScheduler scheduler = new ParticleScheduler();
+    private static final List<PlayerState> pendingArcs = new ArrayList<PlayerState>();
+    private static final int NEAR_ARC_POINTS = 8;
+    private static final int MAX_DRAW_TICKS = ShapeTable.MAX_DRAW_LEVEL;
+    private static final double AIMING_WEIGHT = 1.0D;
+    private static final double DRAWING_WEIGHT = 2.0D;
+    /**
+     * How often every player not aiming has their held item re-checked, in case it changed without an event.
+     */
+    private static final long IDLE_RECHECK_TICKS = 20L;
+    private static TrajectoryPipeline pipeline = null;
     private static BukkitRunnable runnable = null;
     private static long ticks = 0L;
 
     public void onEnable() {
         Bukkit.getServer().getPluginManager().registerEvents(this, this);
+        if (pipeline == null) pipeline = new TrajectoryPipeline();
         if (runnable == null) {
             runnable = new BukkitRunnable() {
                 public void run() {
+                    EntityIndex.refreshAll();
 
-                    for (Player player : Playground.players) {
+                    for (TrajectoryPipeline.Completed completed : Playground.pipeline.drain()) {
+                        TrajectoryCache.Entry entry = Playground.trajectoryCache.put(completed.getKey(), completed.getResults(), completed.getGeneration());
+                        PlayerState owner = Playground.registry.get(completed.getOwner());
+                        if (owner != null) owner.setCached(entry);
+                    }
+
+                    if (Playground.ticks % IDLE_RECHECK_TICKS == 0L) Playground.registry.markIdle();
+                    Playground.registry.refreshAimers(Playground::isHoldingProjectile);
+                    for (PlayerState state : Playground.registry.getAimers()) {
+                        Player player = state.getPlayer();
                         ItemStack itemInMainHand = player.getInventory().getItemInMainHand();
                         Trajectory.ProjectileType projectile = Trajectory.ProjectileType.getByItemStack(itemInMainHand);
-                        if (projectile != null && projectile != Trajectory.ProjectileType.ARROW) {
-                            Playground.renderTrajectory(player, projectile);
+                        if (projectile == null) {
+                            Playground.registry.setAiming(state, false);
+                            continue;
                         }
-                    }
 
-                    Map<Player, Integer> newDrawnBows = new HashMap<Player, Integer>();
+                        if (projectile != Trajectory.ProjectileType.ARROW) {
+                            Playground.queueTrajectory(state, projectile, MAX_DRAW_TICKS, AIMING_WEIGHT);
+                        }
 
-                    for (Entry<Player, Integer> playerIntegerEntry : Playground.drawnBows.entrySet()) {
-                        Player player = (Player) playerIntegerEntry.getKey();
-                        if (player.getInventory().getItemInMainHand().getType() == Material.BOW) {
-                            int draw = playerIntegerEntry.getValue() == null ? 0 : playerIntegerEntry.getValue();
-                            Trajectory.ProjectileType arrow = Trajectory.ProjectileType.ARROW;
-                            double power = Mathsf.remap(0.0D, 20.0D, draw, arrow.getMinVelocity(), arrow.getMaxVelocity());
-                            Playground.renderTrajectory(player, arrow, power);
-                            newDrawnBows.put(player, Math.min(draw + 1, 20));
+                        if (!state.isDrawing()) continue;
+
+                        if (itemInMainHand.getType() == Material.BOW) {
+                            Playground.queueTrajectory(state, Trajectory.ProjectileType.ARROW, state.getDrawTicks(), DRAWING_WEIGHT);
+                            state.advanceDraw(MAX_DRAW_TICKS);
+                        } else {
+                            state.stopDrawing();
                         }
                     }
 
-                    Playground.drawnBows.clear();
-                    Playground.drawnBows.putAll(newDrawnBows);
+                    Playground.pipeline.flush();
+                    Playground.scheduler.allocate();
+                    for (PlayerState state : Playground.pendingArcs) {
+                        Playground.renderTrajectory(state);
+                    }
+
+                    Playground.pendingArcs.clear();
+                    Playground.particles.flush();
                     if (Playground.ticks == Long.MAX_VALUE) Playground.ticks = 0L;
                     else Playground.ticks++;
 
@@ -79,36 +133,150 @@ public final class Playground extends JavaPlugin implements Listener {
             runnable.runTaskTimer(this, 1L, 1L);
         }
 
+        Bukkit.getOnlinePlayers().forEach(registry::markDirty);
+
     }
 
     public void onDisable() {
         if (runnable != null) {
             runnable.cancel();
             runnable = null;
-            players.clear();
+            pipeline.shutdown();
+            pipeline = null;
+            registry.clear();
+            trajectoryCache.clear();
+            particles.reset();
+            scheduler.reset();
+            pendingArcs.clear();
+            EntityIndex.clearAll();
             ticks = 0L;
         }
     }
 
     @EventHandler
-    public void onMove(PlayerMoveEvent event) {
-        Player player = event.getPlayer();
-        players.add(player);
+    public void onJoin(PlayerJoinEvent event) {
+        registry.markDirty(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onHeldItemChange(PlayerItemHeldEvent event) {
+        registry.markDirty(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSwapHands(PlayerSwapHandItemsEvent event) {
+        registry.markDirty(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent event) {
+        if (event.getWhoClicked() instanceof Player) registry.markDirty((Player) event.getWhoClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (event.getWhoClicked() instanceof Player) registry.markDirty((Player) event.getWhoClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDropItem(PlayerDropItemEvent event) {
+        registry.markDirty(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPickupItem(EntityPickupItemEvent event) {
+        if (event.getEntity() instanceof Player) registry.markDirty((Player) event.getEntity());
+    }
+
+    @EventHandler
+    public void onRespawn(PlayerRespawnEvent event) {
+        registry.markDirty(event.getPlayer());
     }
 
     @EventHandler
     public void onLeave(PlayerQuitEvent event) {
         Player player = event.getPlayer();
-        players.remove(player);
+        registry.remove(player.getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        onBlockChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        onBlockChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        onBlockChange(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        onBlockChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        event.blockList().forEach(Playground::onBlockChange);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        event.blockList().forEach(Playground::onBlockChange);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        onPistonMove(event.getBlock(), event.getDirection(), event.getBlocks());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        onPistonMove(event.getBlock(), event.getDirection(), event.getBlocks());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        onBlockChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        onBlockChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        onBlockChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockGrow(BlockGrowEvent event) {
+        onBlockChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockSpread(BlockSpreadEvent event) {
+        onBlockChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        onBlockChange(event.getBlock());
     }
 
     @EventHandler
     public void onInteract(PlayerInteractEvent event) {
         Player player = event.getPlayer(); // TODO: Fix issue where quickly tapping bow causes trajectory arc to persist
         ItemStack itemInMainHand = player.getInventory().getItemInMainHand();
+        PlayerState state = registry.markDirty(player);
         if (itemInMainHand.getType() == Material.BOW && (event.getAction() == Action.RIGHT_CLICK_AIR || event.getAction() == Action.RIGHT_CLICK_BLOCK))
-            drawnBows.put(player, 0);
-        else drawnBows.remove(player);
+            state.startDrawing();
+        else state.stopDrawing();
     }
 
     @EventHandler
@@ -119,22 +287,144 @@ public final class Playground extends JavaPlugin implements Listener {
             ItemStack itemInMainHand = player.getInventory().getItemInMainHand();
             if (itemInMainHand.getType() != Material.BOW) return;
 
-            drawnBows.remove(player);
+            PlayerState state = registry.get(player.getUniqueId());
+            if (state != null) state.stopDrawing();
+        }
+
+    }
+
+    /**
+     * The state of every tracked player, safe to read from any thread.
+     */
+    public static PlayerRegistry getPlayerRegistry() {
+        return registry;
+    }
+
+    /**
+     * The scheduler sharing the per-tick particle budget between aiming players, see
+     * {@link ParticleScheduler#getDropped()} for how many particles it has had to leave out.
+     */
+    public static ParticleScheduler getParticleScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * The batch every arc and impact marker is drawn into, arcs are only shown to the aiming player unless its
+     * {@link ParticleBatch#viewerPolicy viewer policy} is changed.
+     */
+    public static ParticleBatch getParticleBatch() {
+        return particles;
+    }
+
+    /**
+     * @return true if the player holds something {@link Trajectory.ProjectileType#getByItemStack(ItemStack) throwable}, making
+     * them one of the {@link PlayerRegistry#getAimers() aimers} the tick loop visits
+     */
+    private static boolean isHoldingProjectile(Player player) {
+        return player.isOnline() && Trajectory.ProjectileType.getByItemStack(player.getInventory().getItemInMainHand()) != null;
+    }
+
+    private static void onBlockChange(Block block) {
+        trajectoryCache.invalidateBlock(block);
+        if (pipeline != null) pipeline.invalidateBlock(block);
+    }
+
+    /**
+     * Invalidates the piston's head and every block it moves, at both where it was and where it ends up. Both neighbours along
+     * the piston's axis are taken, so this holds whichever way the server reports a retraction's direction.
+     */
+    private static void onPistonMove(Block piston, BlockFace direction, List<Block> moved) {
+        onBlockChange(piston.getRelative(direction));
+        onBlockChange(piston.getRelative(direction.getOppositeFace()));
+        for (Block block : moved) {
+            onBlockChange(block);
+            onBlockChange(block.getRelative(direction));
+            onBlockChange(block.getRelative(direction.getOppositeFace()));
         }
+    }
 
+    /**
+     * Looks up the player's arc, submitting a new trace if their aim changed, and requests the particles to draw it at full
+     * detail. It is drawn by {@link #renderTrajectory(PlayerState)} once every request this tick has been allocated.
+     *
+     * @param drawLevel how far a bow has been drawn, 0 to {@value #MAX_DRAW_TICKS}, the full level for anything thrown
+     */
+    private static void queueTrajectory(PlayerState state, Trajectory.ProjectileType projectile, int drawLevel, double weight) {
+        Player player = state.getPlayer();
+        double power = Mathsf.remap(0.0D, MAX_DRAW_TICKS, drawLevel, projectile.getMinVelocity(), projectile.getMaxVelocity());
+        Location eyeLocation = player.getEyeLocation();
+        TrajectoryCache.AimKey key = TrajectoryCache.AimKey.of(eyeLocation, projectile, power);
+        TrajectoryCache.Entry cached = trajectoryCache.get(key);
+        if (cached == null) {
+            if (!pipeline.isInFlight(player.getUniqueId())) {
+                submitTrajectories(state, eyeLocation, key, projectile, power, drawLevel);
+            }
+
+            cached = state.getCached();
+            if (cached == null || cached.getKey().getProjectileType() != projectile) return;
+        }
+
+        int demand = Math.max(0, cached.getResults().getTracePointCount() - 1);
+        if (cached.getResults().getImpactPoint() != null && MarkerDetail.FULL.isDue(ticks)) demand += MarkerDetail.FULL.getCost();
+
+        state.queue(key, cached, scheduler.request(demand, weight));
+        pendingArcs.add(state);
     }
 
-    private static void renderTrajectory(Player player, Trajectory.ProjectileType projectile) {
-        renderTrajectory(player, projectile, projectile.getMaxVelocity());
+    /**
+     * Draws a queued arc within its allowance. Under pressure the impact marker drops to fewer points and fewer frames first,
+     * then the arc is thinned, its far end before the {@value #NEAR_ARC_POINTS} points nearest the player. Other players the
+     * {@link ParticleBatch#viewerPolicy viewer policy} lets watch it are sent less of it again the further they are from it.
+     */
+    private static void renderTrajectory(PlayerState state) {
+        Player player = state.getPlayer();
+        TrajectoryResults primeTrajectoryResults = state.getCached().getResults();
+        Location impactPoint = primeTrajectoryResults.getImpactPoint();
+        ParticleScheduler.Share share = state.getShare();
+        int allowance = share.getAllowance();
+
+        if (impactPoint != null) {
+            MarkerDetail detail = MarkerDetail.forLevel(share.getLevel());
+            if (detail.isDue(ticks) && detail.getCost() <= allowance) {
+                Direction impactNormalDirection = primeTrajectoryResults.getImpactNormalDirection();
+                renderImpactTarget(player, impactPoint, impactNormalDirection, detail.getCirclePoints(), detail.getCrossPoints());
+                allowance -= detail.getCost();
+            }
+        }
+
+        int primeCount = primeTrajectoryResults.getTracePointCount();
+        int arcPoints = Math.max(0, primeCount - 1);
+        int nearPoints = Math.min(arcPoints, NEAR_ARC_POINTS);
+        int farAllowance = Math.max(allowance - nearPoints, allowance / 2);
+        int nearStride = stride(nearPoints, allowance - farAllowance);
+        int farStride = stride(arcPoints - nearPoints, farAllowance);
+
+        for (int i = 1; i < primeCount; i++) {
+            int stride = i <= nearPoints ? nearStride : farStride;
+            if (stride == 0 || (i - 1) % stride != 0) continue;
+
+            double x = primeTrajectoryResults.getTracePointX(i);
+            double y = primeTrajectoryResults.getTracePointY(i);
+            double z = primeTrajectoryResults.getTracePointZ(i);
+            particles.add(player, x, y, z, 100, 255, 100);
+        }
+
+    }
+
+    /**
+     * @return the step that keeps at most allowance of count points, 0 to keep none
+     */
+    private static int stride(int count, int allowance) {
+        if (count <= allowance) return 1;
+        else if (allowance <= 0) return 0;
+        else return (count + allowance - 1) / allowance;
     }
 
-    private static void renderTrajectory(Player player, Trajectory.ProjectileType projectile, double power) {
-        Location eyeLocation = player.getEyeLocation().clone();
+    private static void submitTrajectories(PlayerState state, Location playerEyeLocation, TrajectoryCache.AimKey key, Trajectory.ProjectileType projectile, double power, int drawLevel) {
+        Location eyeLocation = playerEyeLocation.clone();
         Location yawPerpendicular = LocationUtils.getYawPerpendicular(eyeLocation);
         Location offsetStart = LineTrace.lineTrace((Location) yawPerpendicular, 0.5D, 2).trace().getEnd();
 
-        offsetStart.setYaw(LocationUtils.oppositeYaw(eyeLocation.getYaw()));
-        offsetStart.setPitch(LocationUtils.oppositePitch(eyeLocation.getPitch()));
         eyeLocation.setYaw(LocationUtils.oppositeYaw(eyeLocation.getYaw()));
         eyeLocation.setPitch(LocationUtils.oppositePitch(eyeLocation.getPitch()));
 
@@ -142,52 +432,83 @@ public final class Playground extends JavaPlugin implements Listener {
         double minInertia = projectile.getMinInertia();
         double maxInertia = projectile.getMaxInertia();
 
-        TrajectoryResults primeTrajectoryResults = Trajectory.trajectory(eyeLocation, gravity, power, minInertia, maxInertia).ignoreEntities(player).ignoreMaterials(Material.AIR).trace();
-        TrajectoryResults offsetTrajectoryResults = Trajectory.trajectory(offsetStart, gravity, power, minInertia, maxInertia).ignoreEntities(player).ignoreMaterials(Material.AIR).trace();
+        Trajectory primeTrajectory = Trajectory.trajectory(eyeLocation, gravity, power, minInertia, maxInertia).ignoreEntities(state.getPlayer()).ignoreMaterials(Material.AIR).shaped(projectile, drawLevel).blendFrom(offsetStart);
 
-        Location impactPoint = primeTrajectoryResults.getImpactPoint();
+        TrajectoryCache.Entry previous = state.getCached();
+        if (previous != null && !previous.isStale() && previous.getKey().getProjectileType() == projectile && previous.getResults().getWorld() == eyeLocation.getWorld()) {
+            primeTrajectory.reusing(previous.getResults());
+        }
 
-        if (impactPoint != null) {
-            Direction impactNormalDirection = primeTrajectoryResults.getImpactNormalDirection();
-            renderImpactTarget(impactPoint, impactNormalDirection);
-        }
-
-        List<Location> primeTracePoints = primeTrajectoryResults.getTracePoints();
-        List<Location> offsetTracePoints = offsetTrajectoryResults.getTracePoints();
-
-        for (int i = 1; i < primeTracePoints.size(); i++) {
-            Location primeLoc = primeTracePoints.get(i);
-            if (i >= offsetTracePoints.size()) {
-                ParticleUtils.spawnParticle(primeLoc, 100, 255, 100);
-            } else {
-                Location offsetLoc = offsetTracePoints.get(i);
-                double ratio = Mathsf.iLerp(0, primeTracePoints.size(), i);
-                Location location = Line.lerpVector(offsetLoc.toVector(), primeLoc.toVector(), ratio).toLocation(primeLoc.getWorld());
-                ParticleUtils.spawnParticle(location, 100, 255, 100);
-            }
+        pipeline.submit(state.getUniqueId(), key, trajectoryCache.getGeneration(), primeTrajectory);
+    }
+
+    public static void renderImpactTarget(Player owner, Location impact, Direction direction) {
+        if (MarkerDetail.FULL.isDue(ticks)) {
+            renderImpactTarget(owner, impact, direction, MarkerDetail.FULL.getCirclePoints(), MarkerDetail.FULL.getCrossPoints());
         }
+    }
+
+    private static void renderImpactTarget(Player owner, Location impact, Direction direction, int circlePoints, int crossPoints) {
+        Vector normal = direction.toVector();
+        double centreX = impact.getX() + normal.getX() * 0.05D;
+        double centreY = impact.getY() + normal.getY() * 0.05D;
+        double centreZ = impact.getZ() + normal.getZ() * 0.05D;
+        long mod40 = ticks % 40L;
+        long mod100 = ticks % 100L;
+        long localTicks = mod40;
+        if (mod40 > 20L) localTicks = 40L - mod40;
+
+        double ratio = Mathsf.iLerpClamped(0.0D, 20.0D, (double) localTicks);
+        double radius = Ease.IN_OUT.ease(0.55D, 1.0D, ratio);
+        Axis axis = Axis.fromNormal(normal);
+        renderMarkerTemplate(owner, ImpactMarker.circle(axis, circlePoints), centreX, centreY, centreZ, radius);
+        renderMarkerTemplate(owner, ImpactMarker.cross(axis, (int) (mod100 * ImpactMarker.ROTATION_PHASES / 100L), crossPoints), centreX, centreY, centreZ, radius);
+    }
 
+    private static void renderMarkerTemplate(Player owner, double[] offsets, double centreX, double centreY, double centreZ, double radius) {
+        for (int i = 0; i < offsets.length; i += 3) {
+            particles.add(owner, centreX + offsets[i] * radius, centreY + offsets[i + 1] * radius, centreZ + offsets[i + 2] * radius, 255, 0, 0);
+        }
     }
 
-    public static void renderImpactTarget(Location impact, Direction direction) {
-        if (ticks % 2L != 0L) {
-            Location renderPoint = impact.clone().add(direction.toVector().multiply(0.05D));
-            long mod40 = ticks % 40L;
-            long mod100 = ticks % 100L;
-            long localTicks = mod40;
-            if (mod40 > 20L) localTicks = 40L - mod40;
+    /**
+     * Impact marker detail levels, by the fraction of its particles a player was granted.
+     */
+    private enum MarkerDetail {
+        FULL(21, 11, 2L),
+        REDUCED(13, 7, 2L),
+        MINIMAL(9, 5, 4L);
+
+        private final int circlePoints;
+        private final int crossPoints;
+        private final long interval;
+
+        private MarkerDetail(int circlePoints, int crossPoints, long interval) {
+            this.circlePoints = circlePoints;
+            this.crossPoints = crossPoints;
+            this.interval = interval;
+        }
+
+        private static MarkerDetail forLevel(double level) {
+            if (level >= 1.0D) return FULL;
+            else if (level >= 0.5D) return REDUCED;
+            else return MINIMAL;
+        }
+
+        private boolean isDue(long ticks) {
+            return ticks % this.interval == 1L;
+        }
+
+        private int getCirclePoints() {
+            return this.circlePoints;
+        }
+
+        private int getCrossPoints() {
+            return this.crossPoints;
+        }
 
-            double ratio = Mathsf.iLerpClamped(0.0D, 20.0D, (double) localTicks);
-            double radius = Ease.IN_OUT.ease(0.55D, 1.0D, ratio);
-            double offset = Mathsf.remap(0.0D, 100.0D, (double) mod100, 0.0D, 360.0D);
-            Axis axis = Axis.fromNormal(direction.toVector());
-            List<Location> crossPoints = Circle.circlePointsAxisAligned(radius, 4, axis, renderPoint, offset);
-            List<Location> line1 = Line.pointsAlongALine(crossPoints.get(0), crossPoints.get(2), 11);
-            List<Location> line2 = Line.pointsAlongALine(crossPoints.get(1), crossPoints.get(3), 11);
-            line1.addAll(line2);
-            List<Location> circle = Circle.circlePointsAxisAligned(radius, 21, axis, (Location) renderPoint);
-            circle.addAll(line1);
-            ParticleUtils.renderLine(circle, Color.RED);
+        private int getCost() {
+            return this.circlePoints + this.crossPoints * 2;
         }
     }
 }
@@ -0,0 +1,36 @@
+package com.laura.playground.trajectory;
+
+/**
+ * The fitted curve {@link Trajectory} has always used: forward distance grows with time to the power of the projectile's
+ * inertia, and height falls away with the square of gravity times time. Time is in the curve's own units, 5 samples to one.
+ */
+public class AnalyticIntegrator implements ProjectileIntegrator {
+    private static final double SAMPLE_INTERVAL = 0.2D;
+
+    private final double velocity;
+    private final double gravity;
+    private final double inertia;
+    private final double pitchSin;
+    private final double pitchCos;
+
+    public AnalyticIntegrator(double velocity, double gravity, double inertia, double pitchRads) {
+        this.velocity = velocity;
+        this.gravity = gravity;
+        this.inertia = inertia;
+        this.pitchSin = Math.sin(pitchRads);
+        this.pitchCos = Math.cos(pitchRads);
+    }
+
+    public void offsetAt(double time, double[] out) {
+        out[0] = this.velocity * Math.pow(time, this.inertia) * this.pitchCos;
+        out[1] = this.velocity * time * this.pitchSin - Math.pow(this.gravity * time, 2.0D) / 2.0D;
+    }
+
+    public double getApexTime() {
+        return this.velocity * this.pitchSin / (this.gravity * this.gravity);
+    }
+
+    public double getSampleInterval() {
+        return SAMPLE_INTERVAL;
+    }
+}
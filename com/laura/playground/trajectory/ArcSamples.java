@@ -0,0 +1,153 @@
+package com.laura.playground.trajectory;
+
+import com.laura.playground.utils.PointBuffer;
+import com.laura.playground.utils.world.BlockKey;
+
+import java.util.Arrays;
+
+/**
+ * The chords {@link ArcSolver} verified clear on a trace: the time and point at each end of each chord, and the
+ * {@link BlockKey}s of the blocks each chord passed through, each marked whether it was read and found passable. The chord that
+ * hit something is not included.
+ * <br>
+ * Kept on the {@link TrajectoryResults} so the next trace of a slightly moved aim can {@link Trajectory#reusing reuse} every
+ * chord that still passes through the same blocks, rather than tracing it again.
+ */
+public final class ArcSamples {
+    private final double[] times;
+    private final PointBuffer points;
+    private final int[] blockOffsets;
+    private final long[] blockKeys;
+    private final boolean[] clear;
+    private final int replays;
+
+    private ArcSamples(double[] times, PointBuffer points, int[] blockOffsets, long[] blockKeys, boolean[] clear, int replays) {
+        this.times = times;
+        this.points = points;
+        this.blockOffsets = blockOffsets;
+        this.blockKeys = blockKeys;
+        this.clear = clear;
+        this.replays = replays;
+    }
+
+    /**
+     * @return the number of sample points, one more than the number of chords
+     */
+    public int size() {
+        return this.points.size();
+    }
+
+    public double getTime(int index) {
+        return this.times[index];
+    }
+
+    public double getX(int index) {
+        return this.points.getX(index);
+    }
+
+    public double getY(int index) {
+        return this.points.getY(index);
+    }
+
+    public double getZ(int index) {
+        return this.points.getZ(index);
+    }
+
+    /**
+     * @return the index of the first block key of the chord from sample index to index + 1, see {@link #getBlockKey(int)}
+     */
+    public int getChordStart(int index) {
+        return this.blockOffsets[index];
+    }
+
+    /**
+     * @return the index after the last block key of the chord from sample index to index + 1
+     */
+    public int getChordEnd(int index) {
+        return this.blockOffsets[index + 1];
+    }
+
+    public long getBlockKey(int index) {
+        return this.blockKeys[index];
+    }
+
+    /**
+     * @return false if the block was not read, or is one the chord only clipped while the arc passed it by
+     */
+    public boolean isClear(int index) {
+        return this.clear[index];
+    }
+
+    /**
+     * @return how many traces in a row, ending with this one, replayed chords of the trace before rather than looking them up
+     */
+    public int getReplays() {
+        return this.replays;
+    }
+
+    static final class Recorder {
+        private double[] times = new double[16];
+        private int[] blockOffsets = new int[16];
+        private long[] blockKeys = new long[64];
+        private boolean[] clear = new boolean[64];
+        private int blockCount = 0;
+        private int replays = 0;
+        private final PointBuffer points = new PointBuffer(16);
+
+        void start(double time, double x, double y, double z) {
+            this.points.clear();
+            this.blockCount = 0;
+            this.replays = 0;
+            this.times[0] = time;
+            this.blockOffsets[0] = 0;
+            this.points.add(x, y, z);
+        }
+
+        /**
+         * Adds a block to the chord being recorded.
+         *
+         * @param clear true if the block was read and found passable
+         */
+        void blockKey(long key, boolean clear) {
+            if (this.blockCount == this.blockKeys.length) {
+                this.blockKeys = Arrays.copyOf(this.blockKeys, this.blockCount << 1);
+                this.clear = Arrays.copyOf(this.clear, this.blockCount << 1);
+            }
+
+            this.clear[this.blockCount] = clear;
+            this.blockKeys[this.blockCount++] = key;
+        }
+
+        /**
+         * Ends a chord verified clear, from the last recorded point to this one, through the blocks added since.
+         */
+        void chord(double time, double x, double y, double z) {
+            int index = this.points.size();
+            if (index == this.times.length) {
+                this.times = Arrays.copyOf(this.times, index << 1);
+                this.blockOffsets = Arrays.copyOf(this.blockOffsets, index << 1);
+            }
+
+            this.times[index] = time;
+            this.blockOffsets[index] = this.blockCount;
+            this.points.add(x, y, z);
+        }
+
+        void replays(int replays) {
+            this.replays = replays;
+        }
+
+        /**
+         * Drops the blocks added since the last chord, for a chord that turned out not to be clear.
+         */
+        void discardChord() {
+            this.blockCount = this.blockOffsets[this.points.size() - 1];
+        }
+
+        ArcSamples build() {
+            int size = this.points.size();
+            return new ArcSamples(Arrays.copyOf(this.times, size), this.points.copy(), Arrays.copyOf(this.blockOffsets, size),
+                    Arrays.copyOf(this.blockKeys, this.blockCount), Arrays.copyOf(this.clear, this.blockCount), this.replays);
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.laura.playground.trajectory;
+
+import com.laura.playground.utils.LineTrace;
+import com.laura.playground.utils.LongSet;
+import com.laura.playground.utils.PointBuffer;
+import com.laura.playground.utils.TraceCursor;
+import com.laura.playground.utils.geometry.Direction;
+import com.laura.playground.utils.world.BlockSet;
+import com.laura.playground.utils.world.BlockSource;
+import com.laura.playground.utils.world.ChunkSnapshotCache;
+
+import java.util.Set;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+/**
+ * Finds where a {@link Trajectory}'s arc first enters a block, using its closed-form position over time.
+ * <br>
+ * The arc is split into chords with an adaptive time step: a step is halved while the arc strays more than
+ * {@value #CHORD_TOLERANCE} blocks from its chord, and doubled again once it runs straight, so the near-straight start of a
+ * fast throw is covered by a few long chords and only the tightly curving parts get short ones. Each chord that leaves its
+ * block is walked block by block, and once a chord reaches a block the arc itself is probed and bisected to find the point
+ * and face where the curve, not the chord, enters it. A block only the chord clips, with the curve passing it by, is walked
+ * through.
+ */
+class ArcSolver {
+    private static final double CHORD_TOLERANCE = 0.05D;
+    private static final double MAX_CHORD_LENGTH = 16.0D;
+    private static final double MIN_TIME_STEP = 1.0E-3D;
+    /**
+     * No coarser than the fixed-step trace this solver replaced, so the arc only misses the corners of blocks it would have
+     * missed too.
+     */
+    private static final double PROBE_LENGTH = 0.125D;
+    private static final int REFINE_ITERATIONS = 16;
+    private static final int MAX_REPLAYS = 20;
+
+    private final Trajectory trajectory;
+    private final World world;
+    private final BlockSource blockSource;
+    private final Set<Material> ignoreMaterials;
+    private final double[] point = new double[3];
+    private final double[] probe = new double[3];
+    private final ArcSamples.Recorder recorder = new ArcSamples.Recorder();
+    private final LongSet clearKeys = new LongSet(64);
+
+    private boolean hit;
+    private double endTime;
+    private double impactX;
+    private double impactY;
+    private double impactZ;
+    private Direction impactNormal;
+
+    ArcSolver(Trajectory trajectory, World world, BlockSource blockSource, Set<Material> ignoreMaterials) {
+        this.trajectory = trajectory;
+        this.world = world;
+        this.blockSource = blockSource == null ? BlockSource.live(world) : blockSource;
+        this.ignoreMaterials = ignoreMaterials;
+    }
+
+    /**
+     * Walks the arc from time 0 to maxTime, writing each chord's end point to waypoints (and the impact point last, if any) and
+     * every block the chords pass through to blocks.
+     * <br>
+     * If previous samples are given, their chords are replayed first at the same times: while a chord still passes through the
+     * same blocks as it did before, found by walking it without reading any block, and all of them were read and found
+     * passable, its blocks are taken from the previous trace without being looked up. From the first chord that differs, or
+     * that passed a solid block the earlier arc flew by and this one may not, the rest of the arc is solved as normal.
+     * Samples that were themselves replayed {@value #MAX_REPLAYS} traces in a row are not replayed again, so a block change
+     * no event reported is picked up once the snapshots are refreshed, as {@link ChunkSnapshotCache} does on the same
+     * schedule.
+     *
+     * @param previous the samples of an earlier trace against the same, unchanged, blocks, or null
+     * @return true if the arc hit a block
+     */
+    boolean solve(double maxTime, PointBuffer waypoints, BlockSet blocks, ArcSamples previous) {
+        this.hit = false;
+        this.endTime = maxTime;
+        this.clearKeys.clear();
+        double t0 = 0.0D;
+        double dt = this.trajectory.getIntegrator().getSampleInterval();
+        this.trajectory.pointAt(t0, this.point);
+        double x0 = this.point[0];
+        double y0 = this.point[1];
+        double z0 = this.point[2];
+        waypoints.add(x0, y0, z0);
+        this.recorder.start(t0, x0, y0, z0);
+
+        int replayed = 0;
+        if (previous != null && previous.size() > 0 && previous.getReplays() < MAX_REPLAYS
+                && sameBlock(x0, y0, z0, previous.getX(0), previous.getY(0), previous.getZ(0))) {
+            for (int i = 1; i < previous.size(); i++) {
+                double t1 = previous.getTime(i);
+                if (t1 > maxTime) {
+                    break;
+                }
+
+                this.trajectory.pointAt(t1, this.point);
+                // A chord past a solid block, only clipped or never read, is solved again in case this arc does enter it
+                if (!isAllClear(previous, i - 1)
+                        || !this.isSameChord(x0, y0, z0, this.point[0], this.point[1], this.point[2], previous, i - 1)) {
+                    break;
+                }
+
+                for (int j = previous.getChordStart(i - 1); j < previous.getChordEnd(i - 1); j++) {
+                    long key = previous.getBlockKey(j);
+                    blocks.add(key);
+                    this.recorder.blockKey(key, true);
+                    this.clearKeys.add(key);
+                }
+
+                waypoints.add(this.point[0], this.point[1], this.point[2]);
+                this.recorder.chord(t1, this.point[0], this.point[1], this.point[2]);
+                replayed++;
+                dt = t1 - t0;
+                t0 = t1;
+                x0 = this.point[0];
+                y0 = this.point[1];
+                z0 = this.point[2];
+            }
+        }
+
+        this.recorder.replays(replayed > 0 ? previous.getReplays() + 1 : 0);
+
+        while (t0 < maxTime) {
+            double t1 = Math.min(t0 + dt, maxTime);
+            this.trajectory.pointAt((t0 + t1) / 2.0D, this.point);
+            double midX = this.point[0];
+            double midY = this.point[1];
+            double midZ = this.point[2];
+            this.trajectory.pointAt(t1, this.point);
+            double x1 = this.point[0];
+            double y1 = this.point[1];
+            double z1 = this.point[2];
+
+            double length = distance(x0, y0, z0, x1, y1, z1);
+            double deviation = distance(midX, midY, midZ, (x0 + x1) / 2.0D, (y0 + y1) / 2.0D, (z0 + z1) / 2.0D);
+            if ((deviation > CHORD_TOLERANCE || length > MAX_CHORD_LENGTH) && t1 - t0 > MIN_TIME_STEP) {
+                dt /= 2.0D;
+                continue;
+            }
+
+            waypoints.add(x1, y1, z1);
+            if (!sameBlock(x0, y0, z0, x1, y1, z1)) {
+                TraceCursor cursor = LineTrace.lineTrace(new Location(this.world, x0, y0, z0), new Location(this.world, x1, y1, z1), 1)
+                        .blockSource(this.blockSource)
+                        .ignoreMaterials(this.ignoreMaterials)
+                        .cursor();
+                boolean arcClear = false;
+                while (cursor.next()) {
+                    long key = cursor.getBlockKey();
+                    blocks.add(key);
+                    // Once the arc itself was probed clear over this chord, any further block the chord meets is only clipped too
+                    boolean clear = !arcClear && !cursor.isImpact();
+                    this.recorder.blockKey(key, clear);
+                    if (clear) {
+                        this.clearKeys.add(key);
+                        continue;
+                    } else if (arcClear) {
+                        continue;
+                    }
+
+                    if (!this.refineImpact(t0, t1, length)) {
+                        arcClear = true;
+                        continue;
+                    }
+
+                    this.recorder.discardChord();
+                    waypoints.add(this.impactX, this.impactY, this.impactZ);
+                    return true;
+                }
+            }
+
+            this.recorder.chord(t1, x1, y1, z1);
+
+            t0 = t1;
+            x0 = x1;
+            y0 = y1;
+            z0 = z1;
+            if (deviation < CHORD_TOLERANCE / 4.0D && length < MAX_CHORD_LENGTH / 2.0D) {
+                dt *= 2.0D;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Probes the arc between t0 and t1 every {@value #PROBE_LENGTH} blocks for the first point inside a block, then bisects
+     * between it and the probe before it.
+     *
+     * @return false if no probe landed in a block, i.e. only the chord clipped the block it reached, which the arc flies past
+     */
+    private boolean refineImpact(double t0, double t1, double length) {
+        int probes = Math.max(1, (int) Math.ceil(length / PROBE_LENGTH));
+        double before = t0;
+
+        for (int i = 1; i <= probes; i++) {
+            double t = t0 + (t1 - t0) * i / probes;
+            this.trajectory.pointAt(t, this.probe);
+            if (this.isSolid(this.probe[0], this.probe[1], this.probe[2])) {
+                this.bisect(before, t);
+                return true;
+            }
+
+            before = t;
+        }
+
+        return false;
+    }
+
+    private void bisect(double passable, double solid) {
+        for (int i = 0; i < REFINE_ITERATIONS; i++) {
+            double mid = (passable + solid) / 2.0D;
+            this.trajectory.pointAt(mid, this.probe);
+            if (this.isSolid(this.probe[0], this.probe[1], this.probe[2])) {
+                solid = mid;
+            } else {
+                passable = mid;
+            }
+        }
+
+        this.trajectory.pointAt(passable, this.point);
+        this.trajectory.pointAt(solid, this.probe);
+        double ax = this.point[0];
+        double ay = this.point[1];
+        double az = this.point[2];
+        double bx = this.probe[0];
+        double by = this.probe[1];
+        double bz = this.probe[2];
+
+        // Of the block boundaries crossed between the two points, the one crossed last is the face the arc entered through
+        double latest = -1.0D;
+        Direction normal = Direction.SELF;
+        if (Location.locToBlock(ax) != Location.locToBlock(bx)) {
+            double boundary = bx > ax ? Location.locToBlock(bx) : Location.locToBlock(ax);
+            latest = (boundary - ax) / (bx - ax);
+            normal = bx > ax ? Direction.WEST : Direction.EAST;
+        }
+
+        if (Location.locToBlock(ay) != Location.locToBlock(by)) {
+            double boundary = by > ay ? Location.locToBlock(by) : Location.locToBlock(ay);
+            double ratio = (boundary - ay) / (by - ay);
+            if (ratio > latest) {
+                latest = ratio;
+                normal = by > ay ? Direction.DOWN : Direction.UP;
+            }
+        }
+
+        if (Location.locToBlock(az) != Location.locToBlock(bz)) {
+            double boundary = bz > az ? Location.locToBlock(bz) : Location.locToBlock(az);
+            double ratio = (boundary - az) / (bz - az);
+            if (ratio > latest) {
+                latest = ratio;
+                normal = bz > az ? Direction.NORTH : Direction.SOUTH;
+            }
+        }
+
+        double ratio = Math.max(0.0D, latest);
+        this.endTime = passable;
+        this.setImpact(ax + (bx - ax) * ratio, ay + (by - ay) * ratio, az + (bz - az) * ratio, normal);
+    }
+
+    private boolean isSolid(double x, double y, double z) {
+        Material material = this.blockSource.getType(Location.locToBlock(x), Location.locToBlock(y), Location.locToBlock(z));
+        return !this.ignoreMaterials.contains(material);
+    }
+
+    private void setImpact(double x, double y, double z, Direction normal) {
+        this.hit = true;
+        this.impactX = x;
+        this.impactY = y;
+        this.impactZ = z;
+        this.impactNormal = normal == null ? Direction.SELF : normal;
+    }
+
+    boolean isHit() {
+        return this.hit;
+    }
+
+    /**
+     * @return the keys of the blocks the last solve's chords passed through that were read and found passable, leaving out the
+     *         block hit and any block a chord only clipped
+     */
+    LongSet getClearKeys() {
+        return this.clearKeys;
+    }
+
+    /**
+     * @return the chords of the last solve that were verified clear, to be reused by the next trace
+     */
+    ArcSamples getSamples() {
+        return this.recorder.build();
+    }
+
+    /**
+     * @return the time along the arc at which it hit a block, or the max time if it did not
+     */
+    double getEndTime() {
+        return this.endTime;
+    }
+
+    Location getImpactPoint() {
+        return this.hit ? new Location(this.world, this.impactX, this.impactY, this.impactZ) : null;
+    }
+
+    Location getImpactNormal() {
+        return this.hit ? this.getImpactPoint().setDirection(this.impactNormal.toVector()) : null;
+    }
+
+    Direction getImpactNormalDirection() {
+        return this.hit ? this.impactNormal : null;
+    }
+
+    /**
+     * Walks the chord's blocks, without reading them, and compares them with the blocks of the previous trace's chord.
+     */
+    private boolean isSameChord(double x0, double y0, double z0, double x1, double y1, double z1, ArcSamples previous, int chord) {
+        int start = previous.getChordStart(chord);
+        int end = previous.getChordEnd(chord);
+        // A chord within one block is recorded without any blocks
+        if (sameBlock(x0, y0, z0, x1, y1, z1)) {
+            return start == end;
+        }
+
+        TraceCursor cursor = LineTrace.lineTrace(new Location(this.world, x0, y0, z0), new Location(this.world, x1, y1, z1), 1)
+                .blockSource(this.blockSource)
+                .cursor();
+        int index = start;
+        while (cursor.next()) {
+            if (index == end || cursor.getBlockKey() != previous.getBlockKey(index++)) {
+                return false;
+            }
+        }
+
+        return index == end;
+    }
+
+    /**
+     * @return true if every block of the previous trace's chord was read and found passable
+     */
+    private static boolean isAllClear(ArcSamples previous, int chord) {
+        for (int i = previous.getChordStart(chord); i < previous.getChordEnd(chord); i++) {
+            if (!previous.isClear(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean sameBlock(double x0, double y0, double z0, double x1, double y1, double z1) {
+        return Location.locToBlock(x0) == Location.locToBlock(x1)
+                && Location.locToBlock(y0) == Location.locToBlock(y1)
+                && Location.locToBlock(z0) == Location.locToBlock(z1);
+    }
+
+    private static double distance(double x1, double y1, double z1, double x2, double y2, double z2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double dz = z2 - z1;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+}
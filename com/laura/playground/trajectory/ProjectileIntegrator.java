@@ -0,0 +1,37 @@
+package com.laura.playground.trajectory;
+
+/**
+ * Gives a projectile's position over time, relative to where it was launched and along the yaw it was launched at, so a
+ * {@link Trajectory} only has to rotate and translate it into the world.
+ * <br>
+ * Positions are (forward, up) pairs: forward is the horizontal distance travelled along the launch yaw, up the height gained.
+ */
+public interface ProjectileIntegrator {
+
+    /**
+     * Writes the position at the given time into out as forward, up.
+     */
+    void offsetAt(double time, double[] out);
+
+    /**
+     * @return the time at which the projectile is highest, negative if it only falls
+     */
+    double getApexTime();
+
+    /**
+     * @return the time between the points of a fixed-step trace, e.g. one game tick for a tick-exact integrator
+     */
+    double getSampleInterval();
+
+    /**
+     * Writes count positions, one every step from time start, into out as forward, up pairs.
+     */
+    default void sample(double start, double step, int count, double[] out) {
+        double[] offset = new double[2];
+        for (int i = 0; i < count; i++) {
+            this.offsetAt(start + step * i, offset);
+            out[i * 2] = offset[0];
+            out[i * 2 + 1] = offset[1];
+        }
+    }
+}
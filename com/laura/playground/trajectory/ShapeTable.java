@@ -0,0 +1,126 @@
+package com.laura.playground.trajectory;
+
+import com.laura.playground.utils.Mathsf;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Precomputed arc shapes for every {@link Trajectory.ProjectileType}, draw level and {@value #PITCH_STEP} degree pitch bucket.
+ * <br>
+ * Apart from the yaw it is thrown at and where it starts, an arc's shape only depends on those three, so each shape is the
+ * {@link AnalyticIntegrator analytic curve} sampled once into local-space (forward, up) offsets, and {@link Trajectory} only has
+ * to rotate and translate them. Shapes are filled in the first time they are asked for and then kept, and a pitch between two
+ * buckets is blended from both so the bucketing does not bend the arc.
+ */
+public final class ShapeTable {
+    public static final int MAX_DRAW_LEVEL = 20;
+    private static final double PITCH_STEP = 0.5D;
+    private static final int PITCH_BUCKETS = (int) (180.0D / PITCH_STEP) + 1;
+    private static final double TIME_STEP = 0.05D;
+    /**
+     * How long {@link Trajectory#trace()}'s default 64 points last, later times fall back to the curve.
+     */
+    private static final double MAX_TIME = 12.6D;
+    private static final int TIME_SAMPLES = (int) Math.round(MAX_TIME / TIME_STEP) + 1;
+    private static final AtomicReferenceArray<ShapeTable.Entry> ENTRIES =
+            new AtomicReferenceArray<ShapeTable.Entry>(Trajectory.ProjectileType.values().length * (MAX_DRAW_LEVEL + 1) * PITCH_BUCKETS);
+
+    private ShapeTable() {
+    }
+
+    /**
+     * @param drawLevel how far a bow has been drawn, 0 to {@value #MAX_DRAW_LEVEL}, ignored for projectiles with one velocity
+     * @param pitch the launch pitch in degrees, positive upwards
+     */
+    public static ProjectileIntegrator shape(Trajectory.ProjectileType projectileType, int drawLevel, double pitch) {
+        int level = projectileType.getMinVelocity() == projectileType.getMaxVelocity() ? MAX_DRAW_LEVEL : Math.max(0, Math.min(drawLevel, MAX_DRAW_LEVEL));
+        double bucket = (Math.max(-90.0D, Math.min(pitch, 90.0D)) + 90.0D) / PITCH_STEP;
+        int lower = Math.min((int) bucket, PITCH_BUCKETS - 1);
+        int upper = Math.min(lower + 1, PITCH_BUCKETS - 1);
+        return new ShapeTable.Shape(entry(projectileType, level, lower), entry(projectileType, level, upper), bucket - lower);
+    }
+
+    /**
+     * Two threads may both fill a missing entry, they compute the same shape so whichever is stored last is kept.
+     */
+    private static ShapeTable.Entry entry(Trajectory.ProjectileType projectileType, int level, int bucket) {
+        int index = (projectileType.ordinal() * (MAX_DRAW_LEVEL + 1) + level) * PITCH_BUCKETS + bucket;
+        ShapeTable.Entry entry = ENTRIES.get(index);
+        if (entry == null) {
+            entry = new ShapeTable.Entry(projectileType, level, bucket * PITCH_STEP - 90.0D);
+            ENTRIES.set(index, entry);
+        }
+
+        return entry;
+    }
+
+    private static class Entry {
+        private final AnalyticIntegrator curve;
+        private final float[] offsets;
+        private final double apexTime;
+
+        private Entry(Trajectory.ProjectileType projectileType, int level, double pitch) {
+            double velocity = Mathsf.remap(0.0D, MAX_DRAW_LEVEL, level, projectileType.getMinVelocity(), projectileType.getMaxVelocity());
+            double inertia = Mathsf.lerp(projectileType.getMinInertia(), projectileType.getMaxInertia(), Mathsf.iLerpClamped(0, 90, pitch));
+            this.curve = new AnalyticIntegrator(velocity, projectileType.getGravity(), inertia, Math.toRadians(pitch));
+            this.apexTime = this.curve.getApexTime();
+            this.offsets = new float[TIME_SAMPLES * 2];
+
+            double[] offset = new double[2];
+            for (int i = 0; i < TIME_SAMPLES; i++) {
+                this.curve.offsetAt(i * TIME_STEP, offset);
+                this.offsets[i * 2] = (float) offset[0];
+                this.offsets[i * 2 + 1] = (float) offset[1];
+            }
+        }
+    }
+
+    /**
+     * One arc, blended between the entries of the pitch buckets either side of its pitch. Times past the end of the table fall
+     * back to the entries' curves.
+     */
+    private static class Shape implements ProjectileIntegrator {
+        private final ShapeTable.Entry lower;
+        private final ShapeTable.Entry upper;
+        private final double weight;
+
+        private Shape(ShapeTable.Entry lower, ShapeTable.Entry upper, double weight) {
+            this.lower = lower;
+            this.upper = upper;
+            this.weight = weight;
+        }
+
+        public void offsetAt(double time, double[] out) {
+            if (time >= MAX_TIME) {
+                this.lower.curve.offsetAt(time, out);
+                double forward = out[0];
+                double up = out[1];
+                this.upper.curve.offsetAt(time, out);
+                out[0] = Mathsf.lerp(forward, out[0], this.weight);
+                out[1] = Mathsf.lerp(up, out[1], this.weight);
+                return;
+            }
+
+            double sample = Math.max(0.0D, time) / TIME_STEP;
+            int index = (int) sample;
+            double fraction = sample - index;
+            int i = index * 2;
+            float[] lower = this.lower.offsets;
+            float[] upper = this.upper.offsets;
+            double lowerForward = lower[i] + (lower[i + 2] - lower[i]) * fraction;
+            double lowerUp = lower[i + 1] + (lower[i + 3] - lower[i + 1]) * fraction;
+            double upperForward = upper[i] + (upper[i + 2] - upper[i]) * fraction;
+            double upperUp = upper[i + 1] + (upper[i + 3] - upper[i + 1]) * fraction;
+            out[0] = Mathsf.lerp(lowerForward, upperForward, this.weight);
+            out[1] = Mathsf.lerp(lowerUp, upperUp, this.weight);
+        }
+
+        public double getApexTime() {
+            return Mathsf.lerp(this.lower.apexTime, this.upper.apexTime, this.weight);
+        }
+
+        public double getSampleInterval() {
+            return this.lower.curve.getSampleInterval();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.laura.playground.trajectory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Steps a projectile the way the server does, once per game tick: it moves by its velocity, then its velocity is multiplied by
+ * drag and gravity is taken from its vertical speed. Time is in ticks, and between ticks the projectile moves in a straight
+ * line, as the server's collision checks assume.
+ * <br>
+ * After n ticks the horizontal speed is v0 * drag^n and the distance travelled is v0 times the sum of drag^k for k below n.
+ * With those powers and sums looked up from a {@link TickIntegrator.DragTable} shared by every projectile with the same drag,
+ * any tick is found in constant time rather than by stepping through all the ticks before it.
+ */
+public class TickIntegrator implements ProjectileIntegrator {
+    private static final int MAX_TICKS = 1200;
+    private static final Map<Double, TickIntegrator.DragTable> DRAG_TABLES = new ConcurrentHashMap<Double, TickIntegrator.DragTable>();
+
+    private final TickIntegrator.DragTable table;
+    private final double forwardSpeed;
+    private final double upSpeed;
+    private final double gravity;
+    private final double apexTime;
+
+    /**
+     * @param speed the launch speed in blocks per tick
+     * @param gravity the vertical speed lost each tick, in blocks per tick
+     * @param drag the fraction of its velocity the projectile keeps each tick
+     */
+    public TickIntegrator(double speed, double gravity, double drag, double pitchRads) {
+        this.table = DRAG_TABLES.computeIfAbsent(drag, TickIntegrator.DragTable::new);
+        this.forwardSpeed = speed * Math.cos(pitchRads);
+        this.upSpeed = speed * Math.sin(pitchRads);
+        this.gravity = gravity;
+        this.apexTime = this.findApexTick();
+    }
+
+    public static TickIntegrator of(Trajectory.ProjectileType projectileType, double power, double pitchRads) {
+        return new TickIntegrator(projectileType.getLaunchSpeed() * power, projectileType.getTickGravity(), projectileType.getTickDrag(), pitchRads);
+    }
+
+    public void offsetAt(double time, double[] out) {
+        double clamped = Math.max(0.0D, Math.min(time, MAX_TICKS));
+        int tick = (int) Math.min(clamped, MAX_TICKS - 1);
+        double fraction = clamped - tick;
+        double forward = this.forwardAt(tick);
+        double up = this.upAt(tick);
+        out[0] = forward + (this.forwardAt(tick + 1) - forward) * fraction;
+        out[1] = up + (this.upAt(tick + 1) - up) * fraction;
+    }
+
+    public double getApexTime() {
+        return this.apexTime;
+    }
+
+    public double getSampleInterval() {
+        return 1.0D;
+    }
+
+    /**
+     * Fills whole ticks straight from the table, other steps fall back to {@link #offsetAt(double, double[])}.
+     */
+    public void sample(double start, double step, int count, double[] out) {
+        if (step != 1.0D || start != Math.rint(start)) {
+            ProjectileIntegrator.super.sample(start, step, count, out);
+            return;
+        }
+
+        int first = (int) start;
+        for (int i = 0; i < count; i++) {
+            int tick = Math.max(0, Math.min(first + i, MAX_TICKS));
+            out[i * 2] = this.forwardAt(tick);
+            out[i * 2 + 1] = this.upAt(tick);
+        }
+    }
+
+    private double forwardAt(int tick) {
+        return this.forwardSpeed * this.table.sums[tick];
+    }
+
+    /**
+     * The vertical speed after k ticks is up * drag^k - gravity * sums[k], summing that over the first n ticks gives
+     * up * sums[n] - gravity * fallSums[n].
+     */
+    private double upAt(int tick) {
+        return this.upSpeed * this.table.sums[tick] - this.gravity * this.table.fallSums[tick];
+    }
+
+    /**
+     * Between ticks the path is straight, so it is highest at the first tick the vertical speed is no longer positive.
+     */
+    private double findApexTick() {
+        if (this.upSpeed <= 0.0D) {
+            return -1.0D;
+        }
+
+        for (int tick = 0; tick < MAX_TICKS; tick++) {
+            if (this.upSpeed * this.table.powers[tick] - this.gravity * this.table.sums[tick] <= 0.0D) {
+                return tick;
+            }
+        }
+
+        return MAX_TICKS;
+    }
+
+    /**
+     * drag^n, the sum of drag^k for k below n, and the sum of those sums for k below n, for every tick up to
+     * {@value #MAX_TICKS}.
+     */
+    private static class DragTable {
+        private final double[] powers;
+        private final double[] sums;
+        private final double[] fallSums;
+
+        private DragTable(double drag) {
+            this.powers = new double[MAX_TICKS + 1];
+            this.sums = new double[MAX_TICKS + 1];
+            this.fallSums = new double[MAX_TICKS + 1];
+            this.powers[0] = 1.0D;
+            for (int tick = 1; tick <= MAX_TICKS; tick++) {
+                this.powers[tick] = this.powers[tick - 1] * drag;
+                this.sums[tick] = this.sums[tick - 1] + this.powers[tick - 1];
+                this.fallSums[tick] = this.fallSums[tick - 1] + this.sums[tick - 1];
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.laura.playground.trajectory;
+
+import com.laura.playground.utils.world.BlockSource;
+
+/**
+ * One trace in a {@link Trajectory#traceAll(java.util.Collection)} batch: the trajectory to trace and how far to trace it, see
+ * {@link Trajectory#trace(int)}.
+ */
+public class TraceRequest {
+    private static final int DEFAULT_MAX_TRACE_POINTS = 64;
+
+    private final Trajectory trajectory;
+    private final int maxTracePoints;
+    private BlockSource blockSource;
+
+    private TraceRequest(Trajectory trajectory, int maxTracePoints) {
+        if (trajectory == null) {
+            throw new NullPointerException("trajectory cannot be null");
+        }
+
+        this.trajectory = trajectory;
+        this.maxTracePoints = maxTracePoints;
+    }
+
+    public static TraceRequest of(Trajectory trajectory) {
+        return new TraceRequest(trajectory, DEFAULT_MAX_TRACE_POINTS);
+    }
+
+    public static TraceRequest of(Trajectory trajectory, int maxTracePoints) {
+        return new TraceRequest(trajectory, maxTracePoints);
+    }
+
+    public Trajectory getTrajectory() {
+        return this.trajectory;
+    }
+
+    public int getMaxTracePoints() {
+        return this.maxTracePoints;
+    }
+
+    /**
+     * Sets the source this request alone is traced against, in place of the trajectory's own, see
+     * {@link Trajectory#shareSnapshots}.
+     */
+    void blockSource(BlockSource blockSource) {
+        this.blockSource = blockSource;
+    }
+
+    TrajectoryResults trace() {
+        return this.trajectory.trace(this.maxTracePoints, this.blockSource);
+    }
+}
@@ -1,21 +1,30 @@
 package com.laura.playground.trajectory;
 
-import com.laura.playground.utils.LineTrace;
-import com.laura.playground.utils.LineTraceResults;
+import com.laura.playground.utils.LongSet;
 import com.laura.playground.utils.Mathsf;
-import com.laura.playground.utils.Tracker;
-import com.laura.playground.utils.UniqueList;
+import com.laura.playground.utils.PointBuffer;
+import com.laura.playground.utils.world.BlockKey;
+import com.laura.playground.utils.world.BlockSet;
+import com.laura.playground.utils.world.BlockSource;
+import com.laura.playground.utils.world.ChunkSnapshotCache;
+import com.laura.playground.utils.world.SnapshotBlockSource;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.block.Block;
+import org.bukkit.World;
 import org.bukkit.entity.Arrow;
 import org.bukkit.entity.Egg;
 import org.bukkit.entity.EnderPearl;
@@ -39,9 +48,25 @@ public class Trajectory {
     private final double pitchSin;
     private final double yawCos;
     private final double yawSin;
+    private final double inertia;
     private final Set<Entity> ignoreEntities;
     private final Set<Material> ignoreMaterials;
+    private BlockSource blockSource;
+    private ArcSamples previousSamples;
+    private ProjectileIntegrator integrator;
+    private boolean blended;
+    private double blendX;
+    private double blendY;
+    private double blendZ;
     private static final double DEFAULT_GRAV = 1.333D;
+    /**
+     * How many blocks either side of an arc's horizontal path {@link #traceAll} snapshots, covering its blended render points.
+     */
+    private static final double FOOTPRINT_MARGIN = 2.0D;
+    private static final int FOOTPRINT_SAMPLES = 8;
+    private static final ThreadLocal<PointBuffer> WAYPOINTS = ThreadLocal.withInitial(PointBuffer::new);
+    private static final ThreadLocal<PointBuffer> RENDER_POINTS = ThreadLocal.withInitial(PointBuffer::new);
+    private static final ThreadLocal<double[]> RENDER_OFFSETS = ThreadLocal.withInitial(() -> new double[128]);
 
     public static Trajectory trajectory(Location location, Trajectory.ProjectileType projectileType) {
         return new Trajectory(location, projectileType);
@@ -79,6 +104,8 @@ public class Trajectory {
         this.pitchSin = Math.sin(this.pitchRads);
         this.yawCos = Math.cos(this.yawRads);
         this.yawSin = Math.sin(this.yawRads);
+        this.inertia = Mathsf.lerp(minInertia, maxInertia, Mathsf.iLerpClamped(0, 90, this.pitch));
+        this.integrator = new AnalyticIntegrator(velocity, gravity, this.inertia, this.pitchRads);
     }
 
     public Trajectory ignoreEntities(Entity... entities) {
@@ -91,98 +118,316 @@ public class Trajectory {
         return this;
     }
 
+    /**
+     * Sets where the trace reads block types from, e.g. a {@link com.laura.playground.utils.world.SnapshotBlockSource} so it
+     * can run off the main thread. Defaults to the start location's live world.
+     */
+    public Trajectory blockSource(BlockSource blockSource) {
+        this.blockSource = blockSource;
+        return this;
+    }
+
+    /**
+     * Sets how the projectile moves over time, defaults to the {@link AnalyticIntegrator analytic curve} built from this
+     * trajectory's gravity, velocity and inertia.
+     */
+    public Trajectory integrator(ProjectileIntegrator integrator) {
+        this.integrator = integrator;
+        return this;
+    }
+
+    /**
+     * Reads the arc from the precomputed {@link ShapeTable}, rather than evaluating the curve at every step. The shape is the
+     * same as the projectile type's default curve, at the velocity the draw level gives.
+     *
+     * @param drawLevel how far a bow has been drawn, 0 to {@value ShapeTable#MAX_DRAW_LEVEL}
+     */
+    public Trajectory shaped(Trajectory.ProjectileType projectileType, int drawLevel) {
+        return this.integrator(ShapeTable.shape(projectileType, drawLevel, this.pitch));
+    }
+
+    /**
+     * Moves the projectile tick by tick with the server's own drag and gravity, see {@link TickIntegrator}. The trace is then
+     * sampled once per game tick.
+     *
+     * @param power the fraction of the projectile's full launch speed it is thrown or shot with
+     */
+    public Trajectory tickExact(Trajectory.ProjectileType projectileType, double power) {
+        return this.integrator(TickIntegrator.of(projectileType, power, this.pitchRads));
+    }
+
+    /**
+     * Reuses the chords of an earlier trace wherever this arc still passes through the same blocks, see
+     * {@link ArcSolver#solve}. The earlier trace must have been made against the same blocks and ignored materials, and
+     * no block along it may have changed since.
+     */
+    public Trajectory reusing(TrajectoryResults previous) {
+        this.previousSamples = previous == null ? null : previous.getSamples();
+        return this;
+    }
+
+    /**
+     * Blends the render points from the given start, at the first point, into this arc, at the last, as if a second arc had
+     * been thrown from there and the two lerped together. Only this arc is traced: the offset arc is this one translated, so
+     * each blended point is written straight into the render points, and is only looked up if it is in a block this arc did
+     * not pass through. From the first blended point that is in a block, the rest are left on this arc.
+     */
+    public Trajectory blendFrom(Location offsetStart) {
+        this.blended = true;
+        this.blendX = offsetStart.getX() - this.location.getX();
+        this.blendY = offsetStart.getY() - this.location.getY();
+        this.blendZ = offsetStart.getZ() - this.location.getZ();
+        return this;
+    }
+
     public TrajectoryResults trace() {
         return this.trace(64);
     }
 
-    public TrajectoryResults trace(int maxTracePoints) {
-        TrajectoryResults.TrajectoryResultsBuilder builder = new TrajectoryResults.TrajectoryResultsBuilder();
-        builder.start(this.location.clone());
-        List<Location> waypointsList = new ArrayList<Location>();
-        List<Location> renderList = new ArrayList<Location>();
-        UniqueList<Block> uniqueList = new UniqueList<Location>();
-        Location highestPoint = this.location.clone();
-        boolean impactFound = false;
-        LineTraceResults results = null;
-
-        double points;
-        for (int i = 0; i < maxTracePoints; ++i) {
-            Location clone = this.location.clone();
-            points = this.getX((double) i / 5.0D);
-            double y = this.getY((double) i / 5.0D);
-            clone.add(points, y, 0.0D);
-            Location rotatedPoint = this.rotateY(clone, this.location.clone());
-            waypointsList.add(rotatedPoint);
-            if (clone.getY() > highestPoint.getY()) {
-                highestPoint = rotatedPoint.clone();
+    /**
+     * Traces every request on the common fork-join pool, see {@link #traceAll(Collection, ChunkSnapshotCache, ForkJoinPool)}.
+     */
+    public static List<TrajectoryResults> traceAll(Collection<TraceRequest> requests) {
+        return traceAll(requests, new ChunkSnapshotCache(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Traces every request in parallel on the given pool, blocking until all are done, and returns the results in request
+     * order. Must be called from the main thread.
+     * <br>
+     * Requests with no {@link #blockSource block source} of their own are given a snapshot of the chunks their arc passes over,
+     * shared with every other such request in the same world whose arc passes over one of the same chunks, so each chunk is
+     * snapshotted and looked up once per batch rather than once per trace. Requests that already have a block source keep it.
+     */
+    public static List<TrajectoryResults> traceAll(Collection<TraceRequest> requests, ChunkSnapshotCache snapshots, ForkJoinPool pool) {
+        List<TraceRequest> batch = List.copyOf(requests);
+        shareSnapshots(batch, snapshots);
+        return forkTraces(batch, pool);
+    }
+
+    /**
+     * Gives each request whose trajectory has no block source a snapshot of the chunks under its arc's
+     * {@link #addFootprint footprint}, one snapshot per group of requests whose footprints share a chunk. The snapshot is set on
+     * the request rather than the trajectory, so tracing the trajectory again later takes a fresh one. Main thread only.
+     */
+    static void shareSnapshots(List<TraceRequest> requests, ChunkSnapshotCache snapshots) {
+        int size = requests.size();
+        int[] groups = new int[size];
+        LongSet[] footprints = new LongSet[size];
+        Map<World, Map<Long, Integer>> owners = new HashMap<World, Map<Long, Integer>>();
+        for (int i = 0; i < size; i++) {
+            groups[i] = i;
+            TraceRequest request = requests.get(i);
+            Trajectory trajectory = request.getTrajectory();
+            if (!trajectory.needsSnapshot()) continue;
+
+            LongSet footprint = new LongSet(64);
+            trajectory.addFootprint(request.getMaxTracePoints(), footprint);
+            footprints[i] = footprint;
+            Map<Long, Integer> worldOwners = owners.computeIfAbsent(trajectory.location.getWorld(), world -> new HashMap<Long, Integer>());
+            for (int k = 0; k < footprint.size(); k++) {
+                Integer owner = worldOwners.putIfAbsent(footprint.get(k), i);
+                if (owner != null) {
+                    groups[findGroup(groups, i)] = findGroup(groups, owner);
+                }
             }
+        }
 
-            if (i > 0) {
-                Location previous = waypointsList.get(i - 1);
-                Location current = waypointsList.get(i);
-                if (!previous.getBlock().equals(current.getBlock())) {
-                    results = LineTrace.lineTrace(previous, current, 8)
-                            .track(Tracker.IMPACT, Tracker.BLOCKS)
-                            .ignoreEntities(this.ignoreEntities)
-                            .ignoreMaterials(this.ignoreMaterials)
-                            .trace();
-                    uniqueList.addAll(results.getBlocks());
-                    Location impactPoint = results.getImpactPoint();
-                    if (impactPoint != null) {
-                        waypointsList.add(impactPoint);
-                        impactFound = true;
-                        break;
-                    }
+        Map<Integer, LongSet> regions = new HashMap<Integer, LongSet>();
+        for (int i = 0; i < size; i++) {
+            if (footprints[i] == null) continue;
+
+            LongSet region = regions.computeIfAbsent(findGroup(groups, i), group -> new LongSet(64));
+            for (int k = 0; k < footprints[i].size(); k++) {
+                region.add(footprints[i].get(k));
+            }
+        }
+
+        Map<Integer, BlockSource> sources = new HashMap<Integer, BlockSource>();
+        for (int i = 0; i < size; i++) {
+            if (footprints[i] == null) continue;
+
+            Trajectory trajectory = requests.get(i).getTrajectory();
+            int group = findGroup(groups, i);
+            requests.get(i).blockSource(sources.computeIfAbsent(group, key -> snapshots.capture(trajectory.location.getWorld(), regions.get(key))));
+        }
+    }
+
+    /**
+     * Adds the keys of the chunks under the arc's horizontal path to chunks, from its start out to the furthest it travels in a
+     * trace of maxTracePoints samples, widened by {@value #FOOTPRINT_MARGIN} blocks either side. Every block that trace reads
+     * is in one of them.
+     */
+    void addFootprint(int maxTracePoints, LongSet chunks) {
+        double maxTime = Math.max(0, maxTracePoints - 1) * this.integrator.getSampleInterval();
+        double[] offset = new double[2];
+        double reach = 0.0D;
+        for (int i = 1; i <= FOOTPRINT_SAMPLES; i++) {
+            this.integrator.offsetAt(maxTime * i / FOOTPRINT_SAMPLES, offset);
+            reach = Math.max(reach, offset[0]);
+        }
+
+        // The arc only moves forward along its yaw, so its path seen from above is a line, walked a block at a time
+        int steps = Math.max(1, (int) Math.ceil(reach));
+        for (int i = 0; i <= steps; i++) {
+            double forward = reach * i / steps;
+            double x = this.location.getX() + forward * this.yawCos;
+            double z = this.location.getZ() - forward * this.yawSin;
+            int maxChunkX = Location.locToBlock(x + FOOTPRINT_MARGIN) >> 4;
+            int maxChunkZ = Location.locToBlock(z + FOOTPRINT_MARGIN) >> 4;
+            for (int chunkX = Location.locToBlock(x - FOOTPRINT_MARGIN) >> 4; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = Location.locToBlock(z - FOOTPRINT_MARGIN) >> 4; chunkZ <= maxChunkZ; chunkZ++) {
+                    chunks.add(SnapshotBlockSource.chunkKey(chunkX, chunkZ));
                 }
             }
         }
+    }
+
+    /**
+     * Traces every request on the pool and returns the results in request order. Every request must already have a block
+     * source that is safe to read from any thread, see {@link #shareSnapshots}.
+     */
+    static List<TrajectoryResults> forkTraces(List<TraceRequest> requests, ForkJoinPool pool) {
+        TrajectoryResults[] results = new TrajectoryResults[requests.size()];
+        if (results.length > 0) {
+            pool.invoke(new Trajectory.TraceTask(requests.toArray(new TraceRequest[0]), results, 0, results.length));
+        }
 
-        builder.hitAnything(impactFound);
-        if (impactFound) {
-            builder.impactPoint(results.getImpactPoint());
-            builder.impactNormal(results.getImpactNormal());
-            builder.impactNormalDirection(results.getImpactNormalDirection());
-        } else {
-            builder.impactPoint(null);
-            builder.impactNormal(null);
-            builder.impactNormalDirection(null);
+        return Arrays.asList(results);
+    }
+
+    private static int findGroup(int[] groups, int index) {
+        while (groups[index] != index) {
+            groups[index] = groups[groups[index]];
+            index = groups[index];
         }
 
-        if (waypointsList.isEmpty()) {
-            builder.end(this.location.clone());
-        } else {
-            builder.end(waypointsList.get(waypointsList.size() - 1));
+        return index;
+    }
+
+    private boolean needsSnapshot() {
+        return this.blockSource == null && this.location.getWorld() != null;
+    }
+
+    /**
+     * Traces the arc for as long as a fixed-step trace of maxTracePoints samples, one every
+     * {@link ProjectileIntegrator#getSampleInterval() sample interval}, would cover. Impacts are found by {@link ArcSolver},
+     * which picks its own step length along the arc.
+     */
+    public TrajectoryResults trace(int maxTracePoints) {
+        return this.trace(maxTracePoints, null);
+    }
+
+    /**
+     * @param snapshot the source to trace against in place of this trajectory's {@link #blockSource block source}, or null
+     */
+    TrajectoryResults trace(int maxTracePoints, BlockSource snapshot) {
+        TrajectoryResults.TrajectoryResultsBuilder builder = TrajectoryResults.builder();
+        World world = this.location.getWorld();
+        double originX = this.location.getX();
+        double originY = this.location.getY();
+        double originZ = this.location.getZ();
+        builder.start(this.location.clone());
+        BlockSource source = snapshot == null ? this.blockSource : snapshot;
+        BlockSource reader = (source == null ? BlockSource.live(world) : source).reader();
+
+        PointBuffer waypoints = WAYPOINTS.get();
+        waypoints.clear();
+        BlockSet blocks = new BlockSet();
+        ArcSolver solver = new ArcSolver(this, world, reader, this.ignoreMaterials);
+        boolean impactFound = solver.solve(Math.max(0, maxTracePoints - 1) * this.integrator.getSampleInterval(), waypoints, blocks, this.previousSamples);
+
+        builder.hitAnything(impactFound);
+        builder.impactPoint(solver.getImpactPoint());
+        builder.impactNormal(solver.getImpactNormal());
+        builder.impactNormalDirection(solver.getImpactNormalDirection());
+        builder.samples(solver.getSamples());
+
+        int lastIndex = waypoints.size() - 1;
+        double endX = lastIndex < 0 ? originX : waypoints.getX(lastIndex);
+        double endY = lastIndex < 0 ? originY : waypoints.getY(lastIndex);
+        double endZ = lastIndex < 0 ? originZ : waypoints.getZ(lastIndex);
+        double[] highest = new double[]{originX, originY, originZ};
+        double apexTime = this.getApexTime();
+        if (apexTime > 0.0D && apexTime < solver.getEndTime()) {
+            this.pointAt(apexTime, highest);
+        } else if (endY > originY) {
+            highest[0] = endX;
+            highest[1] = endY;
+            highest[2] = endZ;
         }
 
-        builder.blocks(uniqueList.asArrayList());
-        builder.roughHighestPoint(highestPoint);
-        double roughLength = builder.build().getRoughLength();
-        points = Math.max(1.0D, Math.ceil(roughLength));
-        if (!waypointsList.isEmpty()) {
-            Location lastLoc = waypointsList.get(waypointsList.size() - 1);
-            double distance = this.location.clone().distance(lastLoc);
-
-            for (int i = 0; (double) i < points; ++i) {
-                double ratio = Mathsf.iLerp(0.0D, points, i);
-                double x = Mathsf.lerp(0.0D, distance, ratio);
-                double y = this.getYAtX(x);
-                Location clone = this.location.clone();
-                clone.add(x, y, 0.0D);
-                renderList.add(this.rotateY(clone, this.location.clone()));
+        double highX = highest[0];
+        double highestY = highest[1];
+        double highZ = highest[2];
+        builder.end(new Location(world, endX, endY, endZ));
+        builder.roughHighestPoint(new Location(world, highX, highestY, highZ));
+
+        double roughLength = distance(originX, originY, originZ, highX, highestY, highZ) + distance(highX, highestY, highZ, endX, endY, endZ);
+        double points = Math.max(1.0D, Math.ceil(roughLength));
+        PointBuffer renderPoints = RENDER_POINTS.get();
+        renderPoints.clear();
+        if (lastIndex >= 0) {
+            int count = (int) points;
+            double[] offsets = RENDER_OFFSETS.get();
+            if (offsets.length < count * 2) {
+                offsets = new double[count * 2];
+                RENDER_OFFSETS.set(offsets);
             }
 
-            builder.tracePoints(renderList);
-        } else {
-            builder.tracePoints(new ArrayList<Location>());
+            this.integrator.sample(0.0D, solver.getEndTime() / points, count, offsets);
+            for (int i = 0; i < count; ++i) {
+                double forward = offsets[i * 2];
+                renderPoints.add(originX + forward * this.yawCos, originY + offsets[i * 2 + 1], originZ - forward * this.yawSin);
+            }
+
+            if (this.blended) {
+                this.blendRenderPoints(renderPoints, blocks, solver.getClearKeys(), reader);
+            }
         }
 
+        builder.blockKeys(blocks.toKeyArray());
+        builder.blockSource(source);
+
+        builder.tracePoints(renderPoints);
         return builder.build();
     }
 
+    /**
+     * Moves each render point towards the offset start by the share of the arc still ahead of it, see
+     * {@link #blendFrom(Location)}. Blocks the arc was found to pass through clear are not looked up again, any other block a
+     * blended point is in, including the one the arc hit, is looked up and added to blocks, so the result is invalidated if it
+     * changes.
+     */
+    private void blendRenderPoints(PointBuffer renderPoints, BlockSet blocks, LongSet clear, BlockSource source) {
+        int count = renderPoints.size();
+        long lastChecked = 0L;
+        boolean checked = false;
+        for (int i = 0; i < count; i++) {
+            double weight = 1.0D - Mathsf.iLerp(0.0D, count, i);
+            double x = renderPoints.getX(i) + this.blendX * weight;
+            double y = renderPoints.getY(i) + this.blendY * weight;
+            double z = renderPoints.getZ(i) + this.blendZ * weight;
+            int blockX = (int) Math.floor(x);
+            int blockY = (int) Math.floor(y);
+            int blockZ = (int) Math.floor(z);
+            long key = BlockKey.pack(blockX, blockY, blockZ);
+            if (!clear.contains(key) && (!checked || key != lastChecked)) {
+                blocks.add(key);
+                if (!this.ignoreMaterials.contains(source.getType(blockX, blockY, blockZ))) {
+                    break;
+                }
+
+                lastChecked = key;
+                checked = true;
+            }
+
+            renderPoints.set(i, x, y, z);
+        }
+    }
+
     public double getX(double time) {
-        double ratio = Mathsf.iLerpClamped(0, 90, this.pitch);
-        double inertia = Mathsf.lerp(this.minInertia, this.maxInertia, ratio);
-        return this.velocity * Math.pow(time, inertia) * this.pitchCos;
+        return this.velocity * Math.pow(time, this.inertia) * this.pitchCos;
     }
 
     public double getY(double time) {
@@ -197,25 +442,93 @@ public class Trajectory {
         return this.getY(this.getTime(x));
     }
 
-    private Location rotateY(Location point, Location origin) {
-        Location clone = point.clone().subtract(origin);
-        double x = clone.getX();
-        double y = clone.getY();
-        double z = clone.getZ();
-        double xOrigin = origin.getX();
-        double yOrigin = origin.getY();
-        double zOrigin = origin.getZ();
-        double xRotate = x * this.yawCos + z * this.yawSin;
-        double zRotate = -x * this.yawSin + z * this.yawCos;
-        return new Location(point.getWorld(), xRotate + xOrigin, y + yOrigin, zRotate + zOrigin);
+    World getWorld() {
+        return this.location.getWorld();
+    }
+
+    ProjectileIntegrator getIntegrator() {
+        return this.integrator;
+    }
+
+    /**
+     * @return the time at which the arc peaks, negative if it only falls
+     */
+    public double getApexTime() {
+        return this.integrator.getApexTime();
+    }
+
+    /**
+     * Writes the world position of the arc at the given time into out as x, y, z.
+     */
+    void pointAt(double time, double[] out) {
+        this.integrator.offsetAt(time, out);
+        double forward = out[0];
+        out[1] = this.location.getY() + out[1];
+        out[0] = this.location.getX() + forward * this.yawCos;
+        out[2] = this.location.getZ() - forward * this.yawSin;
+    }
+
+    private static double distance(double x1, double y1, double z1, double x2, double y2, double z2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double dz = z2 - z1;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Splits a range of requests in half until each task traces one, so idle workers can steal the rest.
+     */
+    private static class TraceTask extends RecursiveAction {
+        private final TraceRequest[] requests;
+        private final TrajectoryResults[] results;
+        private final int from;
+        private final int to;
+
+        private TraceTask(TraceRequest[] requests, TrajectoryResults[] results, int from, int to) {
+            this.requests = requests;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (this.to - this.from == 1) {
+                this.results[this.from] = this.requests[this.from].trace();
+                return;
+            }
+
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new Trajectory.TraceTask(this.requests, this.results, this.from, middle),
+                    new Trajectory.TraceTask(this.requests, this.results, middle, this.to));
+        }
     }
 
     public enum ProjectileType {
-        ARROW(Arrow.class, Material.BOW, 1.333D, 2.0D, 16.75D, 1.0D, 0.89D),
-        EGG(Egg.class, Material.EGG, 1.333D, 10.45D, 1.0D, 0.89D),
-        ENDER_PEARL(EnderPearl.class, Material.ENDER_PEARL, 1.333D, 10.45D, 1.0D, 0.89D),
-        SNOWBALL(Snowball.class, Material.SNOWBALL, 1.333D, 10.45D, 1.0D, 0.89D),
-        SPLASH_POTION(SplashPotion.class, Material.SPLASH_POTION, 1.333D, 3.5D, 0.98D, 0.5D);
+        ARROW(Arrow.class, Material.BOW, 1.333D, 2.0D, 16.75D, 1.0D, 0.89D, 3.0D, 0.05D, 0.99D),
+        EGG(Egg.class, Material.EGG, 1.333D, 10.45D, 1.0D, 0.89D, 1.5D, 0.03D, 0.99D),
+        ENDER_PEARL(EnderPearl.class, Material.ENDER_PEARL, 1.333D, 10.45D, 1.0D, 0.89D, 1.5D, 0.03D, 0.99D),
+        SNOWBALL(Snowball.class, Material.SNOWBALL, 1.333D, 10.45D, 1.0D, 0.89D, 1.5D, 0.03D, 0.99D),
+        SPLASH_POTION(SplashPotion.class, Material.SPLASH_POTION, 1.333D, 3.5D, 0.98D, 0.5D, 0.5D, 0.05D, 0.99D);
+
+        private static final Map<Material, ProjectileType> BY_MATERIAL = new EnumMap<Material, ProjectileType>(Material.class);
+        private static final ClassValue<ProjectileType> BY_ENTITY_CLASS = new ClassValue<ProjectileType>() {
+            protected ProjectileType computeValue(Class<?> type) {
+                for (ProjectileType projectileType : values()) {
+                    if (projectileType.getEntityClass().isAssignableFrom(type)) {
+                        return projectileType;
+                    }
+                }
+
+                return null;
+            }
+        };
+        private static final AtomicLong ENTITY_MISSES = new AtomicLong();
+
+        static {
+            for (ProjectileType projectileType : values()) {
+                BY_MATERIAL.putIfAbsent(projectileType.getMaterial(), projectileType);
+            }
+        }
 
         private final Class<? extends Entity> entityClass;
         private final Material material;
@@ -224,12 +537,15 @@ public class Trajectory {
         private final double maxVelocity;
         private final double minInertia;
         private final double maxInertia;
+        private final double launchSpeed;
+        private final double tickGravity;
+        private final double tickDrag;
 
-        private ProjectileType(Class<? extends Entity> entityClass, Material material, double gravity, double maxVelocity, double minInertia, double maxInertia) {
-            this(entityClass, material, gravity, maxVelocity, maxVelocity, minInertia, maxInertia);
+        private ProjectileType(Class<? extends Entity> entityClass, Material material, double gravity, double maxVelocity, double minInertia, double maxInertia, double launchSpeed, double tickGravity, double tickDrag) {
+            this(entityClass, material, gravity, maxVelocity, maxVelocity, minInertia, maxInertia, launchSpeed, tickGravity, tickDrag);
         }
 
-        private ProjectileType(Class<? extends Entity> entityClass, Material material, double gravity, double minVelocity, double maxVelocity, double minInertia, double maxInertia) {
+        private ProjectileType(Class<? extends Entity> entityClass, Material material, double gravity, double minVelocity, double maxVelocity, double minInertia, double maxInertia, double launchSpeed, double tickGravity, double tickDrag) {
             this.entityClass = entityClass;
             this.material = material;
             this.gravity = gravity;
@@ -237,34 +553,36 @@ public class Trajectory {
             this.maxVelocity = maxVelocity;
             this.minInertia = minInertia;
             this.maxInertia = maxInertia;
+            this.launchSpeed = launchSpeed;
+            this.tickGravity = tickGravity;
+            this.tickDrag = tickDrag;
         }
 
+        /**
+         * Resolves the entity's class once and caches it, see {@link #getEntityMisses()} for how many lookups found nothing.
+         */
         public static Trajectory.ProjectileType getByEntity(Entity entity) {
-            for (ProjectileType type : values()) {
-                if (type.getEntityClass().isInstance(entity)) {
-                    return type;
-                }
+            ProjectileType projectileType = entity == null ? null : BY_ENTITY_CLASS.get(entity.getClass());
+            if (projectileType == null) {
+                ENTITY_MISSES.incrementAndGet();
             }
 
-            String entityClassName = entity == null ? "NULL" : entity.getClass().getName();
-            System.out.println("ProjectileType.getByEntity() : No projectile type found for entity " + entityClassName);
-            return null;
+            return projectileType;
         }
 
         public static Trajectory.ProjectileType getByItemStack(ItemStack itemStack) {
-            if (itemStack == null) {
-                return null;
-            } else {
-                Material type = itemStack.getType();
+            return itemStack == null ? null : getByMaterial(itemStack.getType());
+        }
 
-                for (ProjectileType projectileType : values()) {
-                    if (projectileType.getMaterial() == type) {
-                        return projectileType;
-                    }
-                }
+        public static Trajectory.ProjectileType getByMaterial(Material material) {
+            return material == null ? null : BY_MATERIAL.get(material);
+        }
 
-                return null;
-            }
+        /**
+         * @return how many {@link #getByEntity(Entity)} calls found no projectile type since the server started
+         */
+        public static long getEntityMisses() {
+            return ENTITY_MISSES.get();
         }
 
         public Class<? extends Entity> getEntityClass() {
@@ -294,5 +612,26 @@ public class Trajectory {
         public double getMaxInertia() {
             return this.maxInertia;
         }
+
+        /**
+         * @return the server's launch speed at full power, in blocks per tick
+         */
+        public double getLaunchSpeed() {
+            return this.launchSpeed;
+        }
+
+        /**
+         * @return the vertical speed the server takes away each tick, in blocks per tick
+         */
+        public double getTickGravity() {
+            return this.tickGravity;
+        }
+
+        /**
+         * @return the fraction of its velocity the server lets the projectile keep each tick
+         */
+        public double getTickDrag() {
+            return this.tickDrag;
+        }
     }
 }
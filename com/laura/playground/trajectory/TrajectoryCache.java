@@ -0,0 +1,252 @@
+package com.laura.playground.trajectory;
+
+import com.laura.playground.utils.LongSet;
+import com.laura.playground.utils.world.BlockKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+
+/**
+ * Keeps recently traced trajectories by the aim they were traced for, so an arc is only re-traced when the player moves,
+ * turns, changes projectile or power, or a block along the cached path changes. Entries are shared by everyone aiming the
+ * same way, each player's own latest arc is kept on their {@link com.laura.playground.PlayerState}.
+ * <br>
+ * Positions are quantised to 1/64th of a block and angles to 0.1 degrees, below which the rendered arc does not visibly change.
+ * At most {@value #MAX_ENTRIES} entries are kept, the least recently used is dropped first and marked stale, as block changes
+ * are no longer tracked for it.
+ * <br>
+ * Entries are indexed by every {@link BlockKey} their path passed through, so a block change only looks up the entries it
+ * affects. Those are marked stale rather than dropped, and keep being drawn until their re-trace lands.
+ * <br>
+ * Results traced off the main thread were traced against the blocks as they were when submitted, so the blocks changed since
+ * are logged and a result is only stored stale if its path passed through one of them. The log keeps the last
+ * {@value #MAX_LOGGED_CHANGES} changes, a result submitted before the oldest of them is assumed stale.
+ */
+public class TrajectoryCache {
+    private static final double POSITION_STEPS = 64.0D;
+    private static final double ANGLE_STEPS = 10.0D;
+    private static final int MAX_LOGGED_CHANGES = 4096;
+    private static final int MAX_ENTRIES = 512;
+
+    private final LinkedHashMap<TrajectoryCache.AimKey, TrajectoryCache.Entry> entries =
+            new LinkedHashMap<TrajectoryCache.AimKey, TrajectoryCache.Entry>(16, 0.75F, true);
+    private final Map<Long, List<TrajectoryCache.Entry>> byBlock = new HashMap<Long, List<TrajectoryCache.Entry>>();
+    private long[] changes = new long[64];
+    private int changeCount = 0;
+    private long generation = 0L;
+
+    /**
+     * @return the entry traced with this aim if it is still valid, otherwise null
+     */
+    public TrajectoryCache.Entry get(TrajectoryCache.AimKey key) {
+        TrajectoryCache.Entry entry = this.entries.get(key);
+        return entry == null || entry.isStale() ? null : entry;
+    }
+
+    public TrajectoryCache.Entry put(TrajectoryCache.AimKey key, TrajectoryResults results) {
+        return this.put(key, results, this.generation);
+    }
+
+    /**
+     * Stores results traced from a snapshot taken at the given {@link #getGeneration() generation}. If a block on their path
+     * changed since then the entry is stored stale, returned for the tracing player to draw but never by
+     * {@link #get(AimKey)}.
+     */
+    public TrajectoryCache.Entry put(TrajectoryCache.AimKey key, TrajectoryResults results, long generation) {
+        LongSet blocks = new LongSet(results.getBlockKeyCount());
+        for (int i = 0; i < results.getBlockKeyCount(); i++) {
+            blocks.add(results.getBlockKey(i));
+        }
+
+        TrajectoryCache.Entry entry = new TrajectoryCache.Entry(key, results, blocks, this.changedSince(generation, blocks));
+        this.evict(this.entries.put(key, entry));
+        for (int i = 0; i < blocks.size(); i++) {
+            this.byBlock.computeIfAbsent(blocks.get(i), block -> new ArrayList<TrajectoryCache.Entry>(2)).add(entry);
+        }
+
+        if (this.entries.size() > MAX_ENTRIES) {
+            Iterator<TrajectoryCache.Entry> eldest = this.entries.values().iterator();
+            this.evict(eldest.next());
+            eldest.remove();
+        }
+
+        return entry;
+    }
+
+    /**
+     * @return the number of block changes seen so far, to be passed back to {@link #put(AimKey, TrajectoryResults, long)}
+     *         with results traced from the blocks as they are now
+     */
+    public long getGeneration() {
+        return this.generation;
+    }
+
+    private boolean changedSince(long generation, LongSet blocks) {
+        long missed = this.generation - generation;
+        if (missed > this.changeCount) {
+            return true;
+        }
+
+        for (int i = this.changeCount - (int) missed; i < this.changeCount; i++) {
+            if (blocks.contains(this.changes[i])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void logChange(long key) {
+        if (this.changeCount == MAX_LOGGED_CHANGES) {
+            int kept = MAX_LOGGED_CHANGES / 2;
+            System.arraycopy(this.changes, this.changeCount - kept, this.changes, 0, kept);
+            this.changeCount = kept;
+        } else if (this.changeCount == this.changes.length) {
+            this.changes = Arrays.copyOf(this.changes, this.changeCount << 1);
+        }
+
+        this.changes[this.changeCount++] = key;
+        this.generation++;
+    }
+
+    /**
+     * Marks every cached entry whose path passed through the given block stale, see {@link Entry#isStale()}.
+     */
+    public void invalidateBlock(Block block) {
+        long key = BlockKey.pack(block);
+        this.logChange(key);
+        List<TrajectoryCache.Entry> affected = this.byBlock.get(key);
+        if (affected != null) {
+            affected.forEach(TrajectoryCache.Entry::markStale);
+        }
+    }
+
+    public void clear() {
+        this.entries.values().forEach(TrajectoryCache.Entry::markStale);
+        this.entries.clear();
+        this.byBlock.clear();
+        this.changeCount = 0;
+    }
+
+    /**
+     * Unindexes an entry leaving the cache. It may still be held and drawn, so it is marked stale to keep it from being reused
+     * once its blocks are no longer watched.
+     */
+    private void evict(TrajectoryCache.Entry entry) {
+        if (entry == null) {
+            return;
+        }
+
+        entry.markStale();
+        for (int i = 0; i < entry.getBlocks().size(); i++) {
+            long block = entry.getBlocks().get(i);
+            List<TrajectoryCache.Entry> indexed = this.byBlock.get(block);
+            if (indexed != null && indexed.remove(entry) && indexed.isEmpty()) {
+                this.byBlock.remove(block);
+            }
+        }
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public static class Entry {
+        private final TrajectoryCache.AimKey key;
+        private final TrajectoryResults results;
+        private final LongSet blocks;
+        private boolean stale;
+
+        private Entry(TrajectoryCache.AimKey key, TrajectoryResults results, LongSet blocks, boolean stale) {
+            this.key = key;
+            this.results = results;
+            this.blocks = blocks;
+            this.stale = stale;
+        }
+
+        public TrajectoryCache.AimKey getKey() {
+            return this.key;
+        }
+
+        public TrajectoryResults getResults() {
+            return this.results;
+        }
+
+        /**
+         * @return the {@link BlockKey}s of every block the arc, or its blended render points, passed through
+         */
+        public LongSet getBlocks() {
+            return this.blocks;
+        }
+
+        /**
+         * @return true if a block on the path changed since it was traced, or it has left the cache, it may still be drawn
+         *         until its re-trace lands, but is never returned by {@link TrajectoryCache#get(AimKey)} or reused
+         */
+        public boolean isStale() {
+            return this.stale;
+        }
+
+        private void markStale() {
+            this.stale = true;
+        }
+    }
+
+    public static final class AimKey {
+        private final UUID world;
+        private final long x;
+        private final long y;
+        private final long z;
+        private final int yaw;
+        private final int pitch;
+        private final Trajectory.ProjectileType projectileType;
+        private final long power;
+
+        public static TrajectoryCache.AimKey of(Location eyeLocation, Trajectory.ProjectileType projectileType, double power) {
+            return new TrajectoryCache.AimKey(eyeLocation, projectileType, power);
+        }
+
+        private AimKey(Location eyeLocation, Trajectory.ProjectileType projectileType, double power) {
+            this.world = eyeLocation.getWorld() == null ? null : eyeLocation.getWorld().getUID();
+            this.x = Math.round(eyeLocation.getX() * POSITION_STEPS);
+            this.y = Math.round(eyeLocation.getY() * POSITION_STEPS);
+            this.z = Math.round(eyeLocation.getZ() * POSITION_STEPS);
+            this.yaw = (int) Math.round(eyeLocation.getYaw() * ANGLE_STEPS);
+            this.pitch = (int) Math.round(eyeLocation.getPitch() * ANGLE_STEPS);
+            this.projectileType = projectileType;
+            this.power = Double.doubleToLongBits(power);
+        }
+
+        public Trajectory.ProjectileType getProjectileType() {
+            return this.projectileType;
+        }
+
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            } else if (!(o instanceof TrajectoryCache.AimKey)) {
+                return false;
+            } else {
+                TrajectoryCache.AimKey other = (TrajectoryCache.AimKey) o;
+                return this.x == other.x && this.y == other.y && this.z == other.z
+                        && this.yaw == other.yaw && this.pitch == other.pitch
+                        && this.power == other.power && this.projectileType == other.projectileType
+                        && Objects.equals(this.world, other.world);
+            }
+        }
+
+        public int hashCode() {
+            return Objects.hash(this.world, this.x, this.y, this.z, this.yaw, this.pitch, this.projectileType, this.power);
+        }
+    }
+}
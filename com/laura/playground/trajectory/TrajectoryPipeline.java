@@ -0,0 +1,207 @@
+package com.laura.playground.trajectory;
+
+import com.laura.playground.utils.LongSet;
+import com.laura.playground.utils.world.BlockSource;
+import com.laura.playground.utils.world.ChunkSnapshotCache;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bukkit.block.Block;
+
+/**
+ * Runs trajectory traces off the main thread in three stages:
+ * <br>
+ * 1. On the main thread, the caller {@link #submit submits} each player's {@link Trajectory}, then {@link #flush() flushes}
+ * them once per tick, which snapshots the chunks their arcs pass over into immutable {@link BlockSource}s shared between players whose
+ * regions overlap.<br>
+ * 2. The batch is traced in parallel on a fork-join pool, see {@link Trajectory#traceAll}.<br>
+ * 3. On the main thread, {@link #drain()} hands back everything that finished since the last call, to be rendered that tick.
+ * <br><br>
+ * All methods other than the traces themselves must be called from the main thread. Only one trace is in flight per player at
+ * a time, further submits for that player are refused until its result has been drained.
+ */
+@Slf4j
+public class TrajectoryPipeline {
+    private final ForkJoinPool workers;
+    private final Queue<TrajectoryPipeline.Completed> completed;
+    private final Set<UUID> inFlight;
+    private final List<TrajectoryPipeline.Submitted> pending;
+    private final ChunkSnapshotCache snapshotCache;
+
+    public TrajectoryPipeline() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    public TrajectoryPipeline(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("Trajectory-Worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        this.completed = new ConcurrentLinkedQueue<TrajectoryPipeline.Completed>();
+        this.inFlight = new HashSet<UUID>();
+        this.pending = new ArrayList<TrajectoryPipeline.Submitted>();
+        this.snapshotCache = new ChunkSnapshotCache();
+    }
+
+    /**
+     * Captures the loaded chunks the trajectory's arc passes over, as {@link #flush()} would for it. Snapshots are shared
+     * between players and reused across ticks by the pipeline's {@link ChunkSnapshotCache}.
+     */
+    public BlockSource snapshot(Trajectory trajectory) {
+        LongSet chunks = new LongSet(64);
+        trajectory.addFootprint(TraceRequest.of(trajectory).getMaxTracePoints(), chunks);
+        return this.snapshotCache.capture(trajectory.getWorld(), chunks);
+    }
+
+    /**
+     * Drops the cached snapshot of the chunk containing this block, call whenever a block changes.
+     */
+    public void invalidateBlock(Block block) {
+        this.snapshotCache.invalidate(block);
+    }
+
+    public boolean isInFlight(UUID owner) {
+        return this.inFlight.contains(owner);
+    }
+
+    /**
+     * Queues the given trajectory to be traced by the next {@link #flush()}. A trajectory without a block source is given a
+     * snapshot then, one with a block source must already be safe to trace off the main thread.
+     *
+     * @return false if this owner already has a trace in flight or the pipeline has been shut down
+     */
+    public boolean submit(UUID owner, TrajectoryCache.AimKey key, long generation, Trajectory trajectory) {
+        if (this.inFlight.contains(owner) || this.workers.isShutdown()) {
+            return false;
+        }
+
+        this.pending.add(new TrajectoryPipeline.Submitted(owner, key, generation, trajectory));
+        this.inFlight.add(owner);
+        return true;
+    }
+
+    /**
+     * Call once per tick after every submit. Snapshots the chunks around this tick's submitted trajectories and hands them to
+     * the workers as a single batch.
+     */
+    public void flush() {
+        if (this.pending.isEmpty()) {
+            return;
+        }
+
+        List<TrajectoryPipeline.Submitted> batch = new ArrayList<TrajectoryPipeline.Submitted>(this.pending);
+        this.pending.clear();
+        List<TraceRequest> requests = new ArrayList<TraceRequest>(batch.size());
+        for (TrajectoryPipeline.Submitted submitted : batch) {
+            requests.add(TraceRequest.of(submitted.trajectory));
+        }
+
+        Trajectory.shareSnapshots(requests, this.snapshotCache);
+
+        try {
+            this.workers.execute(() -> {
+                List<TrajectoryResults> results;
+                try {
+                    results = Trajectory.forkTraces(requests, this.workers);
+                } catch (RuntimeException e) {
+                    log.warn("TrajectoryPipeline : Trace batch of {} failed", batch.size(), e);
+                    results = null;
+                }
+
+                for (int i = 0; i < batch.size(); i++) {
+                    TrajectoryPipeline.Submitted submitted = batch.get(i);
+                    TrajectoryResults traced = results == null ? null : results.get(i);
+                    this.completed.add(new TrajectoryPipeline.Completed(submitted.owner, submitted.key, submitted.generation, traced));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            for (TrajectoryPipeline.Submitted submitted : batch) {
+                this.inFlight.remove(submitted.owner);
+            }
+        }
+    }
+
+    /**
+     * Call once at the start of each tick. Ages the cached snapshots and returns every trace finished since the last call.
+     * Failed traces are dropped.
+     */
+    public List<TrajectoryPipeline.Completed> drain() {
+        this.snapshotCache.tick();
+        List<TrajectoryPipeline.Completed> drained = new ArrayList<TrajectoryPipeline.Completed>();
+        TrajectoryPipeline.Completed done;
+        while ((done = this.completed.poll()) != null) {
+            this.inFlight.remove(done.getOwner());
+            if (done.getResults() != null) {
+                drained.add(done);
+            }
+        }
+
+        return drained;
+    }
+
+    public void shutdown() {
+        this.workers.shutdownNow();
+        this.completed.clear();
+        this.inFlight.clear();
+        this.pending.clear();
+        this.snapshotCache.clear();
+    }
+
+    private static class Submitted {
+        private final UUID owner;
+        private final TrajectoryCache.AimKey key;
+        private final long generation;
+        private final Trajectory trajectory;
+
+        private Submitted(UUID owner, TrajectoryCache.AimKey key, long generation, Trajectory trajectory) {
+            this.owner = owner;
+            this.key = key;
+            this.generation = generation;
+            this.trajectory = trajectory;
+        }
+    }
+
+    public static class Completed {
+        private final UUID owner;
+        private final TrajectoryCache.AimKey key;
+        private final long generation;
+        private final TrajectoryResults results;
+
+        private Completed(UUID owner, TrajectoryCache.AimKey key, long generation, TrajectoryResults results) {
+            this.owner = owner;
+            this.key = key;
+            this.generation = generation;
+            this.results = results;
+        }
+
+        public UUID getOwner() {
+            return this.owner;
+        }
+
+        public TrajectoryCache.AimKey getKey() {
+            return this.key;
+        }
+
+        public long getGeneration() {
+            return this.generation;
+        }
+
+        public TrajectoryResults getResults() {
+            return this.results;
+        }
+    }
+}
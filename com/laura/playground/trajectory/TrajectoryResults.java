@@ -1,13 +1,18 @@
 package com.laura.playground.trajectory;
 
+import com.laura.playground.utils.PointBuffer;
 import com.laura.playground.utils.geometry.Direction;
+import com.laura.playground.utils.world.BlockKey;
+import com.laura.playground.utils.world.BlockSource;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 
 public class TrajectoryResults {
@@ -17,9 +22,11 @@ public class TrajectoryResults {
     private final Location impactPoint;
     private final Location impactNormal;
     private final Direction impactNormalDirection;
-    private final List<Location> tracePoints;
-    private final List<Block> blocks;
+    private final PointBuffer tracePoints;
+    private final long[] blockKeys;
+    private final BlockSource blockSource;
     private final boolean hitAnything;
+    private final ArcSamples samples;
 
     public Location getStart() {
         return this.start.clone();
@@ -53,12 +60,77 @@ public class TrajectoryResults {
         return this.impactNormalDirection;
     }
 
+    /**
+     * Builds a new list of Locations from the primitive trace points, prefer {@link #getTracePointCount()} and the indexed
+     * getters on hot paths.
+     */
     public List<Location> getTracePoints() {
-        return new ArrayList<Location>(this.tracePoints);
+        return this.tracePoints.toLocations(this.getWorld());
     }
 
+    public int getTracePointCount() {
+        return this.tracePoints.size();
+    }
+
+    public double getTracePointX(int index) {
+        return this.tracePoints.getX(index);
+    }
+
+    public double getTracePointY(int index) {
+        return this.tracePoints.getY(index);
+    }
+
+    public double getTracePointZ(int index) {
+        return this.tracePoints.getZ(index);
+    }
+
+    public Location getTracePoint(int index) {
+        return this.tracePoints.toLocation(this.getWorld(), index);
+    }
+
+    public World getWorld() {
+        return this.start == null ? null : this.start.getWorld();
+    }
+
+    /**
+     * Builds a new list of Blocks from the block keys, prefer {@link #getBlockKeyCount()} and {@link #getBlockKey(int)} on hot
+     * paths.
+     */
     public List<Block> getBlocks() {
-        return new ArrayList<Location>(this.blocks);
+        BlockSource source = this.blockSource;
+        if (source == null) {
+            World world = this.getWorld();
+            if (world == null) {
+                return new ArrayList<Block>();
+            }
+
+            source = BlockSource.live(world);
+        }
+
+        List<Block> blocks = new ArrayList<Block>(this.blockKeys.length);
+        for (long key : this.blockKeys) {
+            Block block = source.getBlock(BlockKey.getX(key), BlockKey.getY(key), BlockKey.getZ(key));
+            if (block != null) {
+                blocks.add(block);
+            }
+        }
+
+        return blocks;
+    }
+
+    public int getBlockKeyCount() {
+        return this.blockKeys.length;
+    }
+
+    public long getBlockKey(int index) {
+        return this.blockKeys[index];
+    }
+
+    /**
+     * @return the chords this arc was traced in, for {@link Trajectory#reusing(TrajectoryResults)}, or null if not recorded
+     */
+    public ArcSamples getSamples() {
+        return this.samples;
     }
 
     public double getRoughLength() {
@@ -78,7 +150,7 @@ public class TrajectoryResults {
         return new TrajectoryResults.TrajectoryResultsBuilder();
     }
 
-    private TrajectoryResults(Location start, Location end, Location roughHighestPoint, Location impactPoint, Location impactNormal, Direction impactNormalDirection, List<Location> tracePoints, List<Block> blocks, boolean hitAnything) {
+    private TrajectoryResults(Location start, Location end, Location roughHighestPoint, Location impactPoint, Location impactNormal, Direction impactNormalDirection, PointBuffer tracePoints, long[] blockKeys, BlockSource blockSource, boolean hitAnything, ArcSamples samples) {
         this.start = start;
         this.end = end;
         this.roughHighestPoint = roughHighestPoint;
@@ -86,8 +158,10 @@ public class TrajectoryResults {
         this.impactNormal = impactNormal;
         this.impactNormalDirection = impactNormalDirection;
         this.tracePoints = tracePoints;
-        this.blocks = blocks;
+        this.blockKeys = blockKeys;
+        this.blockSource = blockSource;
         this.hitAnything = hitAnything;
+        this.samples = samples;
     }
 
     public static class TrajectoryResultsBuilder {
@@ -97,9 +171,12 @@ public class TrajectoryResults {
         private Location impactPoint;
         private Location impactNormal;
         private Direction impactNormalDirection;
-        private ArrayList<Location> tracePoints;
-        private ArrayList<Block> blocks;
+        private PointBuffer tracePoints;
+        private long[] blocks;
+        private int blockCount;
+        private BlockSource blockSource;
         private boolean hitAnything;
+        private ArcSamples samples;
 
         TrajectoryResultsBuilder() {
         }
@@ -136,22 +213,34 @@ public class TrajectoryResults {
 
         public TrajectoryResults.TrajectoryResultsBuilder tracePoint(Location tracePoint) {
             if (this.tracePoints == null) {
-                this.tracePoints = new ArrayList<Location>();
+                this.tracePoints = new PointBuffer();
             }
 
-            this.tracePoints.add(tracePoint);
+            this.tracePoints.add(tracePoint.getX(), tracePoint.getY(), tracePoint.getZ());
             return this;
         }
 
         public TrajectoryResults.TrajectoryResultsBuilder tracePoints(Collection<? extends Location> tracePoints) {
+            if (tracePoints == null) {
+                throw new NullPointerException("tracePoints cannot be null");
+            } else {
+                tracePoints.forEach(this::tracePoint);
+                return this;
+            }
+        }
+
+        public TrajectoryResults.TrajectoryResultsBuilder tracePoints(PointBuffer tracePoints) {
             if (tracePoints == null) {
                 throw new NullPointerException("tracePoints cannot be null");
             } else {
                 if (this.tracePoints == null) {
-                    this.tracePoints = new ArrayList<Location>();
+                    this.tracePoints = tracePoints.copy();
+                } else {
+                    for (int i = 0; i < tracePoints.size(); i++) {
+                        this.tracePoints.add(tracePoints, i);
+                    }
                 }
 
-                this.tracePoints.addAll(tracePoints);
                 return this;
             }
         }
@@ -165,11 +254,17 @@ public class TrajectoryResults {
         }
 
         public TrajectoryResults.TrajectoryResultsBuilder block(Block block) {
+            return this.blockKey(BlockKey.pack(block));
+        }
+
+        public TrajectoryResults.TrajectoryResultsBuilder blockKey(long blockKey) {
             if (this.blocks == null) {
-                this.blocks = new ArrayList<Block>();
+                this.blocks = new long[16];
+            } else if (this.blockCount == this.blocks.length) {
+                this.blocks = Arrays.copyOf(this.blocks, this.blockCount << 1);
             }
 
-            this.blocks.add(block);
+            this.blocks[this.blockCount++] = blockKey;
             return this;
         }
 
@@ -177,20 +272,33 @@ public class TrajectoryResults {
             if (blocks == null) {
                 throw new NullPointerException("blocks cannot be null");
             } else {
-                if (this.blocks == null) {
-                    this.blocks = new ArrayList<Block>();
+                blocks.forEach(this::block);
+                return this;
+            }
+        }
+
+        public TrajectoryResults.TrajectoryResultsBuilder blockKeys(long[] blockKeys) {
+            if (blockKeys == null) {
+                throw new NullPointerException("blockKeys cannot be null");
+            } else {
+                for (long blockKey : blockKeys) {
+                    this.blockKey(blockKey);
                 }
 
-                this.blocks.addAll(blocks);
                 return this;
             }
         }
 
         public TrajectoryResults.TrajectoryResultsBuilder clearBlocks() {
-            if (this.blocks != null) {
-                this.blocks.clear();
-            }
+            this.blockCount = 0;
+            return this;
+        }
 
+        /**
+         * Sets where the results' Blocks are materialised from, defaults to the start location's live world.
+         */
+        public TrajectoryResults.TrajectoryResultsBuilder blockSource(BlockSource blockSource) {
+            this.blockSource = blockSource;
             return this;
         }
 
@@ -199,36 +307,21 @@ public class TrajectoryResults {
             return this;
         }
 
+        public TrajectoryResults.TrajectoryResultsBuilder samples(ArcSamples samples) {
+            this.samples = samples;
+            return this;
+        }
+
         public TrajectoryResults build() {
-            List<Location> tracePoints;
-            switch (this.tracePoints == null ? 0 : this.tracePoints.size()) {
-                case 0:
-                    tracePoints = Collections.emptyList();
-                    break;
-                case 1:
-                    tracePoints = Collections.singletonList(this.tracePoints.get(0));
-                    break;
-                default:
-                    tracePoints = Collections.unmodifiableList(new ArrayList<Location>(this.tracePoints));
-            }
+            PointBuffer tracePoints = this.tracePoints == null ? new PointBuffer(1) : this.tracePoints.copy();
 
-            List<Block> blocks;
-            switch (this.blocks == null ? 0 : this.blocks.size()) {
-                case 0:
-                    blocks = Collections.emptyList();
-                    break;
-                case 1:
-                    blocks = Collections.singletonList(this.blocks.get(0));
-                    break;
-                default:
-                    blocks = Collections.unmodifiableList(new ArrayList<Block>(this.blocks));
-            }
+            long[] blocks = this.blocks == null ? new long[0] : Arrays.copyOf(this.blocks, this.blockCount);
 
-            return new TrajectoryResults(this.start, this.end, this.roughHighestPoint, this.impactPoint, this.impactNormal, this.impactNormalDirection, tracePoints, blocks, this.hitAnything);
+            return new TrajectoryResults(this.start, this.end, this.roughHighestPoint, this.impactPoint, this.impactNormal, this.impactNormalDirection, tracePoints, blocks, this.blockSource, this.hitAnything, this.samples);
         }
 
         public String toString() {
-            return "TrajectoryResults.TrajectoryResultsBuilder(start=" + this.start + ", end=" + this.end + ", roughHighestPoint=" + this.roughHighestPoint + ", impactPoint=" + this.impactPoint + ", impactNormal=" + this.impactNormal + ", impactNormalDirection=" + this.impactNormalDirection + ", tracePoints=" + this.tracePoints + ", blocks=" + this.blocks + ", hitAnything=" + this.hitAnything + ")";
+            return "TrajectoryResults.TrajectoryResultsBuilder(start=" + this.start + ", end=" + this.end + ", roughHighestPoint=" + this.roughHighestPoint + ", impactPoint=" + this.impactPoint + ", impactNormal=" + this.impactNormal + ", impactNormalDirection=" + this.impactNormalDirection + ", tracePoints=" + this.tracePoints + ", blocks=" + this.blockCount + ", hitAnything=" + this.hitAnything + ", samples=" + this.samples + ")";
         }
     }
 }
@@ -1,5 +1,11 @@
 package com.laura.playground.utils;
 
+import com.laura.playground.utils.geometry.Direction;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
@@ -117,6 +123,16 @@ public enum EntityHitBox {
     ZOMBIE_HORSE(ZombieHorse.class, 1.6D, 1.39D),
     ZOMBIE_VILLAGER(ZombieVillager.class, 1.95D, 0.6D);
 
+    private static final double EPSILON = 1.0E-9D;
+    /**
+     * Memoises {@link #resolve(Class)} per runtime class, including an empty result for entity types with no hit box.
+     */
+    private static final ClassValue<Optional<EntityHitBox>> RESOLVER = new ClassValue<Optional<EntityHitBox>>() {
+        protected Optional<EntityHitBox> computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
     private final Class<? extends Entity> entity;
     private final double height;
     private final double width;
@@ -137,27 +153,91 @@ public enum EntityHitBox {
         EntityHitBox.BoundingBox boundingBox = parseEntity(entity);
         if (boundingBox != null && location != null && location.getWorld() != null) {
             Location entityLocation = entity.getLocation();
-            Location maxLoc = boundingBox.getMax().toLocation(location.getWorld()).add(entityLocation);
-            Location minLoc = boundingBox.getMin().toLocation(location.getWorld()).add(entityLocation);
-            if (maxLoc.getX() < location.getX()) {
-                return false;
-            } else if (maxLoc.getY() < location.getY()) {
-                return false;
-            } else if (maxLoc.getZ() < location.getZ()) {
-                return false;
-            } else if (minLoc.getX() > location.getX()) {
-                return false;
-            } else if (minLoc.getY() > location.getY()) {
-                return false;
-            } else {
-                return !(minLoc.getZ() > location.getZ());
-            }
+            return boundingBox.contains(location.getX() - entityLocation.getX(), location.getY() - entityLocation.getY(), location.getZ() - entityLocation.getZ());
         } else {
             return false;
         }
     }
 
-    private static EntityHitBox.BoundingBox parseEntity(Entity entity) {
+    public static EntityHitBox.Intersection intersect(Location from, Location to, Entity entity) {
+        return intersect(from.getX(), from.getY(), from.getZ(), to.getX(), to.getY(), to.getZ(), entity);
+    }
+
+    /**
+     * Intersects the segment from -> to with the entity's hit box using the slab method.
+     *
+     * @return the entry point along the segment and the face of the hit box it enters through, or null if the segment misses
+     */
+    public static EntityHitBox.Intersection intersect(double fromX, double fromY, double fromZ, double toX, double toY, double toZ, Entity entity) {
+        EntityHitBox.BoundingBox boundingBox = parseEntity(entity);
+        if (boundingBox == null) {
+            return null;
+        }
+
+        Location entityLocation = entity.getLocation();
+        return intersect(fromX, fromY, fromZ, toX, toY, toZ, entity, entityLocation.getX(), entityLocation.getY(), entityLocation.getZ(), boundingBox);
+    }
+
+    /**
+     * Intersects the segment with a hit box already resolved for the entity at the given position, without reading the entity.
+     */
+    static EntityHitBox.Intersection intersect(double fromX, double fromY, double fromZ, double toX, double toY, double toZ, Entity entity, double entityX, double entityY, double entityZ, EntityHitBox.BoundingBox boundingBox) {
+        double originX = fromX - entityX;
+        double originY = fromY - entityY;
+        double originZ = fromZ - entityZ;
+        double deltaX = toX - fromX;
+        double deltaY = toY - fromY;
+        double deltaZ = toZ - fromZ;
+
+        double tMin = 0.0D;
+        double tMax = 1.0D;
+        Direction face = Direction.SELF;
+
+        if (Math.abs(deltaX) < EPSILON) {
+            if (originX < boundingBox.getMinX() || originX > boundingBox.getMaxX()) return null;
+        } else {
+            double t1 = (boundingBox.getMinX() - originX) / deltaX;
+            double t2 = (boundingBox.getMaxX() - originX) / deltaX;
+            if (Math.min(t1, t2) > tMin) {
+                tMin = Math.min(t1, t2);
+                face = deltaX > 0.0D ? Direction.WEST : Direction.EAST;
+            }
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        if (Math.abs(deltaY) < EPSILON) {
+            if (originY < boundingBox.getMinY() || originY > boundingBox.getMaxY()) return null;
+        } else {
+            double t1 = (boundingBox.getMinY() - originY) / deltaY;
+            double t2 = (boundingBox.getMaxY() - originY) / deltaY;
+            if (Math.min(t1, t2) > tMin) {
+                tMin = Math.min(t1, t2);
+                face = deltaY > 0.0D ? Direction.DOWN : Direction.UP;
+            }
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        if (Math.abs(deltaZ) < EPSILON) {
+            if (originZ < boundingBox.getMinZ() || originZ > boundingBox.getMaxZ()) return null;
+        } else {
+            double t1 = (boundingBox.getMinZ() - originZ) / deltaZ;
+            double t2 = (boundingBox.getMaxZ() - originZ) / deltaZ;
+            if (Math.min(t1, t2) > tMin) {
+                tMin = Math.min(t1, t2);
+                face = deltaZ > 0.0D ? Direction.NORTH : Direction.SOUTH;
+            }
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        if (tMin > tMax) {
+            return null;
+        }
+
+        double length = Math.sqrt(deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ);
+        return new EntityHitBox.Intersection(entity, tMin, tMin * length, face);
+    }
+
+    static EntityHitBox.BoundingBox parseEntity(Entity entity) {
         if (entity == null) {
             return null;
         } else {
@@ -239,24 +319,32 @@ public enum EntityHitBox {
                     }
                 }
 
-                return new EntityHitBox.BoundingBox(height, width, width);
+                return EntityHitBox.BoundingBox.of(height, width);
             }
         }
     }
 
     public static EntityHitBox getFromEntity(Entity entity) {
-        for (int i = 0; i < values().length; i) {
-            EntityHitBox value = values()[i];
-            if (entity.getClass().isInstance(value.getEntity()) || value.entity.equals(entity.getClass())) {
-                return value;
-            }
+        return entity == null ? null : getFromClass(entity.getClass());
+    }
 
-            if (entity instanceof Player && value == PLAYER) {
-                return value;
+    public static EntityHitBox getFromClass(Class<?> entityClass) {
+        return RESOLVER.get(entityClass).orElse(null);
+    }
+
+    /**
+     * Finds the most specific hit box whose entity type the given class implements, e.g. a CraftZombieVillager resolves to
+     * ZOMBIE_VILLAGER rather than ZOMBIE. Only run once per class, see {@link #RESOLVER}.
+     */
+    private static Optional<EntityHitBox> resolve(Class<?> entityClass) {
+        EntityHitBox best = null;
+        for (EntityHitBox value : values()) {
+            if (value.entity.isAssignableFrom(entityClass) && (best == null || best.entity.isAssignableFrom(value.entity))) {
+                best = value;
             }
         }
 
-        return null;
+        return Optional.ofNullable(best);
     }
 
     public Class<? extends Entity> getEntity() {
@@ -275,35 +363,109 @@ public enum EntityHitBox {
         return this.length;
     }
 
+    /**
+     * A hit box relative to the entity's location, stored as primitive min/max offsets.<br>
+     * Boxes are immutable and shared, one per distinct height and width, so the default and variant (baby, sneaking, slime size...) boxes are only ever built once.
+     */
     public static class BoundingBox {
-        private final Vector upperNW = new Vector(0, 0, 0);
-        private final Vector upperNE = new Vector(0, 0, 0);
-        private final Vector upperSE = new Vector(0, 0, 0);
-        private final Vector upperSW = new Vector(0, 0, 0);
-        private final Vector lowerNW = new Vector(0, 0, 0);
-        private final Vector lowerNE = new Vector(0, 0, 0);
-        private final Vector lowerSE = new Vector(0, 0, 0);
-        private final Vector lowerSW = new Vector(0, 0, 0);
+        private static final Map<Long, EntityHitBox.BoundingBox> CACHE = new ConcurrentHashMap<Long, EntityHitBox.BoundingBox>();
+
+        private final double minX;
+        private final double minY;
+        private final double minZ;
+        private final double maxX;
+        private final double maxY;
+        private final double maxZ;
+
+        public static EntityHitBox.BoundingBox of(double height, double width) {
+            long key = (long) Float.floatToIntBits((float) height) << 32 | (long) Float.floatToIntBits((float) width) & 0xFFFFFFFFL;
+            return CACHE.computeIfAbsent(key, k -> new EntityHitBox.BoundingBox(height, width, width));
+        }
 
         public BoundingBox(double height, double width, double length) {
             double halfWidth = width / 2.0D;
             double halfLength = length / 2.0D;
-            this.upperNW.add(new Vector(-halfWidth, height, -halfLength));
-            this.upperNE.add(new Vector(halfWidth, height, -halfLength));
-            this.upperSE.add(new Vector(halfWidth, height, halfLength));
-            this.upperSW.add(new Vector(-halfWidth, height, halfLength));
-            this.lowerNW.add(new Vector(-halfWidth, 0.0D, -halfLength));
-            this.lowerNE.add(new Vector(halfWidth, 0.0D, -halfLength));
-            this.lowerSE.add(new Vector(halfWidth, 0.0D, halfLength));
-            this.lowerSW.add(new Vector(-halfWidth, 0.0D, halfLength));
+            this.minX = -halfWidth;
+            this.minY = 0.0D;
+            this.minZ = -halfLength;
+            this.maxX = halfWidth;
+            this.maxY = height;
+            this.maxZ = halfLength;
+        }
+
+        public boolean contains(double x, double y, double z) {
+            return x >= this.minX && x <= this.maxX && y >= this.minY && y <= this.maxY && z >= this.minZ && z <= this.maxZ;
+        }
+
+        public double getMinX() {
+            return this.minX;
+        }
+
+        public double getMinY() {
+            return this.minY;
+        }
+
+        public double getMinZ() {
+            return this.minZ;
+        }
+
+        public double getMaxX() {
+            return this.maxX;
+        }
+
+        public double getMaxY() {
+            return this.maxY;
+        }
+
+        public double getMaxZ() {
+            return this.maxZ;
         }
 
         public Vector getMax() {
-            return this.upperSE.clone();
+            return new Vector(this.maxX, this.maxY, this.maxZ);
         }
 
         public Vector getMin() {
-            return this.lowerNW.clone();
+            return new Vector(this.minX, this.minY, this.minZ);
+        }
+    }
+
+    public static class Intersection {
+        private final Entity entity;
+        private final double ratio;
+        private final double distance;
+        private final Direction face;
+
+        public Intersection(Entity entity, double ratio, double distance, Direction face) {
+            this.entity = entity;
+            this.ratio = ratio;
+            this.distance = distance;
+            this.face = face;
+        }
+
+        public Entity getEntity() {
+            return this.entity;
+        }
+
+        /**
+         * @return how far along the segment the entry point is, 0 being the start and 1 the end
+         */
+        public double getRatio() {
+            return this.ratio;
+        }
+
+        /**
+         * @return the distance in blocks from the start of the segment to the entry point
+         */
+        public double getDistance() {
+            return this.distance;
+        }
+
+        /**
+         * @return the face of the hit box the segment entered through, or SELF if it started inside the hit box
+         */
+        public Direction getFace() {
+            return this.face;
         }
     }
 }
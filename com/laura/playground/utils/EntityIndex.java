@@ -0,0 +1,173 @@
+package com.laura.playground.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+/**
+ * Broad phase for entity hit checks.
+ * <br>
+ * Entities are bucketed into 16x16x16 cells by every cell their hit box overlaps, so a trace only has to test the entities
+ * whose cells its swept bounding box touches, rather than every entity in the world.<br>
+ * Each world's index is built on the main thread, when it is first asked for and again by {@link #refreshAll()} once per tick,
+ * and published as an immutable map of cells. Each entity's position and hit box are captured with it, so {@link #query} and
+ * the hit tests {@link LineTrace} runs against its results never touch the world, and may run on any thread, seeing entities
+ * where they were at the last refresh.
+ */
+public class EntityIndex {
+    private static final int CELL_SHIFT = 4;
+    private static final Map<UUID, EntityIndex> INDEXES = new ConcurrentHashMap<UUID, EntityIndex>();
+
+    private final World world;
+    private volatile Map<Long, List<EntityIndex.Entry>> cells;
+
+    /**
+     * Main thread only the first time a world is asked for, as that builds its index. After that, any thread.
+     */
+    public static EntityIndex of(World world) {
+        return INDEXES.computeIfAbsent(world.getUID(), uid -> new EntityIndex(world));
+    }
+
+    /**
+     * Rebuilds every world's index from its current entities. Main thread only, call once per tick.
+     */
+    public static void refreshAll() {
+        INDEXES.values().forEach(EntityIndex::rebuild);
+    }
+
+    public static void clearAll() {
+        INDEXES.clear();
+    }
+
+    private EntityIndex(World world) {
+        this.world = world;
+        this.rebuild();
+    }
+
+    public List<Entity> query(Location from, Location to) {
+        return this.query(Math.min(from.getX(), to.getX()), Math.min(from.getY(), to.getY()), Math.min(from.getZ(), to.getZ()),
+                Math.max(from.getX(), to.getX()), Math.max(from.getY(), to.getY()), Math.max(from.getZ(), to.getZ()));
+    }
+
+    /**
+     * @return every indexed entity whose cells overlap the given box, each entity at most once, in no particular order
+     */
+    public List<Entity> query(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        List<EntityIndex.Entry> entries = this.queryEntries(minX, minY, minZ, maxX, maxY, maxZ);
+        List<Entity> entities = new ArrayList<Entity>(entries.size());
+        for (EntityIndex.Entry entry : entries) {
+            entities.add(entry.getEntity());
+        }
+
+        return entities;
+    }
+
+    List<EntityIndex.Entry> queryEntries(Location from, Location to) {
+        return this.queryEntries(Math.min(from.getX(), to.getX()), Math.min(from.getY(), to.getY()), Math.min(from.getZ(), to.getZ()),
+                Math.max(from.getX(), to.getX()), Math.max(from.getY(), to.getY()), Math.max(from.getZ(), to.getZ()));
+    }
+
+    private List<EntityIndex.Entry> queryEntries(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        Map<Long, List<EntityIndex.Entry>> cells = this.cells;
+        if (cells.isEmpty()) {
+            return new ArrayList<EntityIndex.Entry>();
+        }
+
+        int minCellX = toCell(minX);
+        int minCellY = toCell(minY);
+        int minCellZ = toCell(minZ);
+        int maxCellX = toCell(maxX);
+        int maxCellY = toCell(maxY);
+        int maxCellZ = toCell(maxZ);
+        Set<EntityIndex.Entry> found = new LinkedHashSet<EntityIndex.Entry>();
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                    found.addAll(cells.getOrDefault(packCell(cellX, cellY, cellZ), Collections.emptyList()));
+                }
+            }
+        }
+
+        return new ArrayList<EntityIndex.Entry>(found);
+    }
+
+    /**
+     * Main thread only.
+     */
+    public void rebuild() {
+        Map<Long, List<EntityIndex.Entry>> cells = new HashMap<Long, List<EntityIndex.Entry>>();
+
+        for (Entity entity : this.world.getEntities()) {
+            EntityHitBox.BoundingBox boundingBox = EntityHitBox.parseEntity(entity);
+            if (boundingBox == null) {
+                continue;
+            }
+
+            Location location = entity.getLocation();
+            EntityIndex.Entry entry = new EntityIndex.Entry(entity, location.getX(), location.getY(), location.getZ(), boundingBox);
+            int minCellX = toCell(location.getX() + boundingBox.getMinX());
+            int minCellY = toCell(location.getY() + boundingBox.getMinY());
+            int minCellZ = toCell(location.getZ() + boundingBox.getMinZ());
+            int maxCellX = toCell(location.getX() + boundingBox.getMaxX());
+            int maxCellY = toCell(location.getY() + boundingBox.getMaxY());
+            int maxCellZ = toCell(location.getZ() + boundingBox.getMaxZ());
+
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                    for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                        cells.computeIfAbsent(packCell(cellX, cellY, cellZ), key -> new ArrayList<EntityIndex.Entry>()).add(entry);
+                    }
+                }
+            }
+        }
+
+        cells.replaceAll((key, entries) -> List.copyOf(entries));
+        this.cells = Map.copyOf(cells);
+    }
+
+    private static int toCell(double coordinate) {
+        return Location.locToBlock(coordinate) >> CELL_SHIFT;
+    }
+
+    private static long packCell(int cellX, int cellY, int cellZ) {
+        return ((long) cellX & 0x3FFFFFL) << 42 | ((long) cellY & 0xFFFFFL) << 22 | ((long) cellZ & 0x3FFFFFL);
+    }
+
+    /**
+     * An entity with its position and hit box as they were when the index was built.
+     */
+    static final class Entry {
+        private final Entity entity;
+        private final double x;
+        private final double y;
+        private final double z;
+        private final EntityHitBox.BoundingBox boundingBox;
+
+        private Entry(Entity entity, double x, double y, double z, EntityHitBox.BoundingBox boundingBox) {
+            this.entity = entity;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.boundingBox = boundingBox;
+        }
+
+        Entity getEntity() {
+            return this.entity;
+        }
+
+        EntityHitBox.Intersection intersect(Location from, Location to) {
+            return EntityHitBox.intersect(from.getX(), from.getY(), from.getZ(), to.getX(), to.getY(), to.getZ(), this.entity, this.x, this.y, this.z, this.boundingBox);
+        }
+    }
+}
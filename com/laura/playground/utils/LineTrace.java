@@ -1,19 +1,27 @@
 package com.laura.playground.utils;
 
 import com.laura.playground.utils.geometry.Direction;
-import com.laura.playground.utils.geometry.Line;
+import com.laura.playground.utils.world.BlockKey;
+import com.laura.playground.utils.world.BlockSource;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
@@ -30,10 +38,13 @@ public class LineTrace {
     private boolean impactCheck;
     private boolean firstBlockCheck;
     private boolean firstEntityCheck;
+    private boolean pointsCheck;
     private final EnumSet<Material> ignoreMaterials;
-    private final Set<Block> ignoreBlocks;
+    private final LongSet ignoreBlocks;
     private final Set<Entity> ignoreEntities;
     private final EnumSet<Material> getFirstMaterials;
+    private TraceMode mode;
+    private BlockSource blockSource;
 
     public static LineTrace lineTrace(Location start, double distance, int pointsPerBlock) {
         return new LineTrace(start, distance, pointsPerBlock, (LivingEntity) null);
@@ -65,10 +76,12 @@ public class LineTrace {
         this.impactCheck = false;
         this.firstBlockCheck = false;
         this.firstEntityCheck = false;
+        this.pointsCheck = false;
         this.ignoreMaterials = EnumSet.noneOf(Material.class);
-        this.ignoreBlocks = new HashSet<Block>();
+        this.ignoreBlocks = new LongSet();
         this.ignoreEntities = new HashSet<Entity>();
         this.getFirstMaterials = EnumSet.noneOf(Material.class);
+        this.mode = TraceMode.SAMPLED;
         this.start = start;
         this.end = end;
         this.distance = distance;
@@ -102,12 +115,16 @@ public class LineTrace {
             case FIRST_ENTITY:
                 this.firstEntityCheck = true;
                 break;
+            case POINTS:
+                this.pointsCheck = true;
+                break;
             case ALL:
                 this.blocksCheck = true;
                 this.entitiesCheck = true;
                 this.impactCheck = true;
                 this.firstBlockCheck = true;
                 this.firstEntityCheck = true;
+                this.pointsCheck = true;
         }
 
         return this;
@@ -137,7 +154,14 @@ public class LineTrace {
     }
 
     public LineTrace ignoreBlock(Block block) {
-        this.ignoreBlocks.add(block);
+        return this.ignoreBlock(BlockKey.pack(block));
+    }
+
+    /**
+     * Ignores the block with this {@link BlockKey}.
+     */
+    public LineTrace ignoreBlock(long blockKey) {
+        this.ignoreBlocks.add(blockKey);
         return this;
     }
 
@@ -169,139 +193,303 @@ public class LineTrace {
         return this;
     }
 
+    public LineTrace mode(TraceMode mode) {
+        this.mode = mode == null ? TraceMode.SAMPLED : mode;
+        return this;
+    }
+
+    /**
+     * Sets where the trace reads blocks from, defaults to the start location's live world.
+     */
+    public LineTrace blockSource(BlockSource blockSource) {
+        this.blockSource = blockSource;
+        return this;
+    }
+
     public LineTrace ignoreStartBlock() {
-        return this.ignoreBlock(this.start.getBlock());
+        return this.ignoreBlock(BlockKey.pack(this.start.getBlockX(), this.start.getBlockY(), this.start.getBlockZ()));
     }
 
     public LineTrace ignoreOriginEntity() {
         return this.originEntity == null ? this : this.ignoreEntitiy(this.originEntity);
     }
 
+    /**
+     * Walks the line block by block only as far as the caller pulls, see {@link TraceCursor}. Trackers do not apply, and the
+     * walk is always {@link TraceMode#VOXEL}.
+     */
+    public TraceCursor cursor() {
+        this.resolveEnd();
+        return new TraceCursor(this, this.resolveBlockSource(), this.start, this.end);
+    }
+
+    /**
+     * @return the keys of the blocks along the line, as {@link Tracker#BLOCKS} would collect them, walked lazily so a
+     * short-circuiting stream (e.g. findFirst, anyMatch, limit) stops the walk
+     */
+    public LongStream blockKeys() {
+        return StreamSupport.longStream(new LineTrace.BlockSpliterator(this.cursor(), false), false);
+    }
+
+    /**
+     * @return the keys of the blocks along the line the trace would stop at, walked lazily, see {@link #blockKeys()}
+     */
+    public LongStream impactKeys() {
+        return StreamSupport.longStream(new LineTrace.BlockSpliterator(this.cursor(), true), false);
+    }
+
     public LineTraceResults trace() {
+        this.resolveEnd();
+        if (this.mode == TraceMode.VOXEL) {
+            return this.traceVoxels();
+        }
+
         LineTraceResults.LineTraceResultsBuilder builder = LineTraceResults.builder();
+        BlockSource source = this.resolveBlockSource();
         int totalPoints = this.pointsPerBlock * (int) Math.ceil(this.distance);
-        if (this.end == null) {
-            Vector direction = this.start.getDirection().clone();
-            Vector directionMultiplied = direction.multiply(this.distance);
-            this.end = this.start.clone().add(directionMultiplied);
-        }
 
         builder.start(this.start);
         builder.end(this.end);
-        List<Location> linePoints = Line.pointsAlongALine(this.start, this.end, totalPoints);
-        if (!linePoints.isEmpty()) {
-            builder.tracePoints(linePoints);
-            Block lastBlock = this.start.getBlock();
-            Location lastLocation = linePoints.get(0);
-            builder.startBlock(this.start.getBlock());
-            builder.endBlock(this.end.getBlock());
-            List<Entity> entities = new ArrayList<Entity>();
-            if (this.entitiesCheck || this.firstEntityCheck) {
-                entities = lastLocation.getWorld().getEntities();
-            }
-
-            entities.removeAll(this.ignoreEntities);
-
-            List<Block> addedBlocks = new ArrayList();
-            List<Entity> addedEntities = new ArrayList();
+        builder.blockSource(source);
+        if (totalPoints > 0) {
+            World world = this.start.getWorld();
+            int lastIndex = totalPoints - 1;
+            long lastBlock = BlockKey.pack(this.start.getBlockX(), this.start.getBlockY(), this.start.getBlockZ());
+            double lastX = this.start.getX();
+            double lastY = this.start.getY();
+            double lastZ = this.start.getZ();
+            Location lastLocation = this.pointsCheck ? new Location(world, lastX, lastY, lastZ) : null;
+            builder.startBlockKey(lastBlock);
+            builder.endBlockKey(BlockKey.pack(this.end.getBlockX(), this.end.getBlockY(), this.end.getBlockZ()));
+            this.traceEntities(builder, world);
+
+            boolean anyBlockAdded = false;
             boolean firstBlockDone = false;
             boolean setDirection = false;
             boolean hitAnything = false;
 
-            for (Location location : linePoints) {
-                Block block = location.getBlock();
+            // Each sample is placed as Line.pointsAlongALine would, without building the whole list up front
+            int i = 0;
+            for (; i < totalPoints; i++) {
+                double ratioAlong = lastIndex == 0 ? 0.0D : (double) i / lastIndex;
+                double x = Mathsf.lerp(this.start.getX(), this.end.getX(), ratioAlong);
+                double y = Mathsf.lerp(this.start.getY(), this.end.getY(), ratioAlong);
+                double z = Mathsf.lerp(this.start.getZ(), this.end.getZ(), ratioAlong);
+                Location location = null;
+                if (this.pointsCheck) {
+                    location = new Location(world, x, y, z);
+                    builder.tracePoint(location);
+                }
 
-                if (block != null) {
-                    if ((this.blocksCheck || this.firstBlockCheck && addedBlocks.isEmpty()) && !this.ignoreBlocks.contains(block)) {
-                        addedBlocks.add(block);
-                        builder.block(block);
-                    }
+                int blockX = Location.locToBlock(x);
+                int blockY = Location.locToBlock(y);
+                int blockZ = Location.locToBlock(z);
+                long block = BlockKey.pack(blockX, blockY, blockZ);
 
-                    if (this.entitiesCheck || this.firstEntityCheck) {
+                if ((this.blocksCheck || this.firstBlockCheck && !anyBlockAdded) && !this.ignoreBlocks.contains(block)) {
+                    anyBlockAdded = true;
+                    builder.blockKey(block);
+                }
 
-                        for (Entity entity : entities) {
-                            if (ignoreEntities.contains(entity)) continue;
-                            if (EntityHitBox.hitCheck(location, entity)) {
-                                addedEntities.add(entity);
-                                builder.entity(entity);
+                if (this.impactCheck) {
+                    if (this.isImpactBlock(source.getType(blockX, blockY, blockZ), block)) {
+                        builder.hitAnything(true);
+                        hitAnything = true;
+                        if (!firstBlockDone) {
+                            builder.firstBlockKey(block);
+                            firstBlockDone = true;
+                            if (!this.impactCheck) {
+                                continue;
                             }
-                        }
-                    }
 
-                    if (this.impactCheck) {
-                        Material blockMaterial = block.getType();
-                        if (!this.ignoreMaterials.contains(blockMaterial) && (this.getFirstMaterials.isEmpty() || this.getFirstMaterials.contains(blockMaterial)) && !this.ignoreBlocks.contains(location.getBlock())) {
-                            builder.hitAnything(true);
-                            hitAnything = true;
-                            if (!firstBlockDone) {
-                                builder.firstBlock(block);
-                                firstBlockDone = true;
-                                if (!this.impactCheck) {
-                                    continue;
-                                }
-
-                                Direction face = Direction.getRelative(lastLocation.getBlock(), location.getBlock());
-                                if (face == null) {
-                                    face = Direction.SELF;
-                                }
-
-                                double ratio;
-                                switch (face) {
-                                    case NORTH:
-                                        ratio = Mathsf.iLerp(lastLocation.getZ(), location.getZ(), (double) lastLocation.getBlockZ());
-                                        break;
-                                    case EAST:
-                                        ratio = Mathsf.iLerp(lastLocation.getX(), location.getX(), (double) (lastLocation.getBlockX() + 1));
-                                        break;
-                                    case SOUTH:
-                                        ratio = Mathsf.iLerp(lastLocation.getZ(), location.getZ(), (double) (lastLocation.getBlockZ() + 1));
-                                        break;
-                                    case WEST:
-                                        ratio = Mathsf.iLerp(lastLocation.getX(), location.getX(), (double) lastLocation.getBlockX());
-                                        break;
-                                    case UP:
-                                        ratio = Mathsf.iLerp(lastLocation.getY(), location.getY(), (double) (lastLocation.getBlockY() + 1));
-                                        break;
-                                    case DOWN:
-                                        ratio = Mathsf.iLerp(lastLocation.getY(), location.getY(), (double) lastLocation.getBlockY());
-                                        break;
-                                    default:
-                                        ratio = 0.0D;
-                                }
-
-                                Location impactPoint = Line.lerpVector(lastLocation.toVector(), location.toVector(), ratio).toLocation(location.getWorld());
-                                builder.impactPoint(impactPoint);
-                                builder.impactNormal(impactPoint.clone().setDirection(face.getOpposite().toVector()));
-                                builder.impactNormalDirection(face.getOpposite());
+                            Direction face = Direction.fromOffset(blockX - BlockKey.getX(lastBlock), blockY - BlockKey.getY(lastBlock), blockZ - BlockKey.getZ(lastBlock));
+                            if (face == null) {
+                                face = Direction.SELF;
                             }
 
-                            if (!setDirection && !lastBlock.equals(block)) {
-                                setDirection = true;
-                                builder.direction(Direction.getRelative(block, lastBlock));
+                            double ratio;
+                            switch (face) {
+                                case NORTH:
+                                    ratio = Mathsf.iLerp(lastZ, z, (double) Location.locToBlock(lastZ));
+                                    break;
+                                case EAST:
+                                    ratio = Mathsf.iLerp(lastX, x, (double) (Location.locToBlock(lastX) + 1));
+                                    break;
+                                case SOUTH:
+                                    ratio = Mathsf.iLerp(lastZ, z, (double) (Location.locToBlock(lastZ) + 1));
+                                    break;
+                                case WEST:
+                                    ratio = Mathsf.iLerp(lastX, x, (double) Location.locToBlock(lastX));
+                                    break;
+                                case UP:
+                                    ratio = Mathsf.iLerp(lastY, y, (double) (Location.locToBlock(lastY) + 1));
+                                    break;
+                                case DOWN:
+                                    ratio = Mathsf.iLerp(lastY, y, (double) Location.locToBlock(lastY));
+                                    break;
+                                default:
+                                    ratio = 0.0D;
                             }
 
-                            if (!this.blocksCheck && !this.entitiesCheck && !this.firstBlockCheck && !this.firstEntityCheck) {
-                                builder.endBlock(block);
-                                break;
-                            }
+                            Location impactPoint = new Location(world, Mathsf.lerp(lastX, x, ratio), Mathsf.lerp(lastY, y, ratio), Mathsf.lerp(lastZ, z, ratio));
+                            builder.impactPoint(impactPoint);
+                            builder.impactNormal(impactPoint.clone().setDirection(face.getOpposite().toVector()));
+                            builder.impactNormalDirection(face.getOpposite());
+                        }
+
+                        if (!setDirection && lastBlock != block) {
+                            setDirection = true;
+                            builder.direction(Direction.fromOffset(BlockKey.getX(lastBlock) - blockX, BlockKey.getY(lastBlock) - blockY, BlockKey.getZ(lastBlock) - blockZ));
+                        }
+
+                        if (!this.blocksCheck && !this.firstBlockCheck) {
+                            builder.endBlockKey(block);
+                            break;
                         }
                     }
+                }
 
+                if (this.pointsCheck) {
                     if (hitAnything) {
                         builder.postImpactPoint(location);
                     } else {
                         builder.preImpactPoint(lastLocation);
                     }
+                }
+
+                lastBlock = block;
+                lastX = x;
+                lastY = y;
+                lastZ = z;
+                lastLocation = location;
+            }
 
-                    lastBlock = block;
-                    lastLocation = location;
+            // The trace points always cover the whole line, even when the walk stopped at the impact
+            if (this.pointsCheck) {
+                for (i++; i < totalPoints; i++) {
+                    double ratioAlong = lastIndex == 0 ? 0.0D : (double) i / lastIndex;
+                    builder.tracePoint(new Location(world, Mathsf.lerp(this.start.getX(), this.end.getX(), ratioAlong),
+                            Mathsf.lerp(this.start.getY(), this.end.getY(), ratioAlong), Mathsf.lerp(this.start.getZ(), this.end.getZ(), ratioAlong)));
                 }
             }
+        }
 
+        return builder.build();
+    }
+
+    private LineTraceResults traceVoxels() {
+        LineTraceResults.LineTraceResultsBuilder builder = LineTraceResults.builder();
+        BlockSource source = this.resolveBlockSource();
+        TraceCursor cursor = new TraceCursor(this, source, this.start, this.end);
+        builder.start(this.start);
+        builder.end(this.end);
+        builder.blockSource(source);
+        builder.startBlockKey(BlockKey.pack(Location.locToBlock(this.start.getX()), Location.locToBlock(this.start.getY()), Location.locToBlock(this.start.getZ())));
+        builder.endBlockKey(BlockKey.pack(Location.locToBlock(this.end.getX()), Location.locToBlock(this.end.getY()), Location.locToBlock(this.end.getZ())));
+
+        this.traceEntities(builder, this.start.getWorld());
+        boolean firstBlockDone = false;
+        boolean hitAnything = false;
+        boolean anyBlockAdded = false;
+
+        while (cursor.next()) {
+            long block = cursor.getBlockKey();
+            Location entryPoint = this.pointsCheck ? cursor.getEntryPoint() : null;
+            if (entryPoint != null) {
+                builder.tracePoint(entryPoint);
+            }
+
+            if ((this.blocksCheck || this.firstBlockCheck && !anyBlockAdded) && !this.ignoreBlocks.contains(block)) {
+                anyBlockAdded = true;
+                builder.blockKey(block);
+            }
+
+            if (this.impactCheck && cursor.isImpact()) {
+                builder.hitAnything(true);
+                hitAnything = true;
+                if (!firstBlockDone) {
+                    firstBlockDone = true;
+                    Direction entryFace = cursor.getEntryFace();
+                    Location impactPoint = entryPoint == null ? cursor.getEntryPoint() : entryPoint;
+                    builder.firstBlockKey(block);
+                    builder.impactPoint(impactPoint);
+                    builder.impactNormal(impactPoint.clone().setDirection(entryFace.toVector()));
+                    builder.impactNormalDirection(entryFace);
+                    if (entryFace != Direction.SELF) {
+                        builder.direction(entryFace);
+                    }
+                }
+
+                if (!this.blocksCheck && !this.firstBlockCheck) {
+                    builder.endBlockKey(block);
+                    break;
+                }
+            }
+
+            if (entryPoint == null) {
+                continue;
+            }
+
+            if (hitAnything) {
+                builder.postImpactPoint(entryPoint);
+            } else {
+                builder.preImpactPoint(entryPoint);
+            }
         }
+
         return builder.build();
     }
 
+    private void resolveEnd() {
+        if (this.end == null) {
+            Vector direction = this.start.getDirection().clone();
+            Vector directionMultiplied = direction.multiply(this.distance);
+            this.end = this.start.clone().add(directionMultiplied);
+        }
+    }
+
+    private BlockSource resolveBlockSource() {
+        return this.blockSource == null ? BlockSource.live(this.start.getWorld()) : this.blockSource;
+    }
+
+    /**
+     * Tests the whole start -> end segment against each nearby entity's hit box once, adding hits nearest first.
+     * FIRST_ENTITY on its own only adds the nearest hit. Entities are tested where {@link EntityIndex} last saw them, so this
+     * is safe off the main thread once the world's index exists.
+     */
+    private void traceEntities(LineTraceResults.LineTraceResultsBuilder builder, World world) {
+        if (!this.entitiesCheck && !this.firstEntityCheck) {
+            return;
+        }
+
+        List<EntityHitBox.Intersection> hits = new ArrayList<EntityHitBox.Intersection>();
+        for (EntityIndex.Entry entry : EntityIndex.of(world).queryEntries(this.start, this.end)) {
+            if (this.ignoreEntities.contains(entry.getEntity())) continue;
+            EntityHitBox.Intersection intersection = entry.intersect(this.start, this.end);
+            if (intersection != null) {
+                hits.add(intersection);
+            }
+        }
+
+        hits.sort(Comparator.comparingDouble(EntityHitBox.Intersection::getRatio));
+        for (EntityHitBox.Intersection hit : hits) {
+            builder.entity(hit.getEntity());
+            if (!this.entitiesCheck) {
+                break;
+            }
+        }
+    }
+
+    boolean isIgnoredBlock(long block) {
+        return this.ignoreBlocks.contains(block);
+    }
+
+    boolean isImpactBlock(Material blockMaterial, long block) {
+        return !this.ignoreMaterials.contains(blockMaterial)
+                && (this.getFirstMaterials.isEmpty() || this.getFirstMaterials.contains(blockMaterial))
+                && !this.ignoreBlocks.contains(block);
+    }
+
     public Location getStart() {
         return this.start;
     }
@@ -313,4 +501,30 @@ public class LineTrace {
     public double getDistance() {
         return this.distance;
     }
+
+    /**
+     * Hands out the keys of a {@link TraceCursor}'s blocks one per {@link #tryAdvance} call, so the walk only goes as far as
+     * the stream consuming it.
+     */
+    private static class BlockSpliterator extends Spliterators.AbstractLongSpliterator {
+        private final TraceCursor cursor;
+        private final boolean impactsOnly;
+
+        private BlockSpliterator(TraceCursor cursor, boolean impactsOnly) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+            this.cursor = cursor;
+            this.impactsOnly = impactsOnly;
+        }
+
+        public boolean tryAdvance(LongConsumer action) {
+            while (this.cursor.next()) {
+                if (this.impactsOnly ? this.cursor.isImpact() : !this.cursor.isIgnored()) {
+                    action.accept(this.cursor.getBlockKey());
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
 }
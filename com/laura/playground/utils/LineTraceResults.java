@@ -1,6 +1,8 @@
 package com.laura.playground.utils;
 
 import com.laura.playground.utils.geometry.Direction;
+import com.laura.playground.utils.world.BlockKey;
+import com.laura.playground.utils.world.BlockSource;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -12,19 +14,25 @@ import java.util.stream.Collectors;
 
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.entity.Entity;
 
+/**
+ * Blocks are held as packed {@link BlockKey}s, and only turned into {@link Block}s through the trace's {@link BlockSource}
+ * when asked for by {@link #getBlocks()} and the other Block getters. Internal callers should prefer the key getters.
+ */
 public final class LineTraceResults {
-    private final List<Block> blocks;
+    private final long[] blockKeys;
+    private final BlockSource blockSource;
     private final List<Entity> entities;
     private final List<Location> tracePoints;
     private final List<Location> preImpactPoints;
     private final List<Location> postImpactPoints;
-    private final Block firstBlock;
-    private final Block startBlock;
-    private final Block endBlock;
+    private final long firstBlock;
+    private final long startBlock;
+    private final long endBlock;
     private final Direction direction;
     private final Location impactPoint;
     private final Location impactNormal;
@@ -46,7 +54,12 @@ public final class LineTraceResults {
     }
 
     public Material hitMaterial() {
-        return this.firstBlock == null ? Material.AIR : this.firstBlock.getType();
+        if (this.firstBlock == BlockKey.NONE) {
+            return Material.AIR;
+        }
+
+        BlockSource source = this.resolveBlockSource();
+        return source == null ? Material.AIR : source.getType(BlockKey.getX(this.firstBlock), BlockKey.getY(this.firstBlock), BlockKey.getZ(this.firstBlock));
     }
 
     public List<Block> getNonAirBlocks() {
@@ -77,8 +90,32 @@ public final class LineTraceResults {
         return LocationUtils.reflect(this.start, this.getImpactPoint(), this.getDirection());
     }
 
+    /**
+     * Builds a new list of Blocks from the block keys, prefer {@link #getBlockKeyCount()} and {@link #getBlockKey(int)} on hot
+     * paths.
+     */
     public List<Block> getBlocks() {
-        return this.blocks;
+        if (this.blockKeys.length == 0) {
+            return Collections.emptyList();
+        }
+
+        List<Block> blocks = new ArrayList<Block>(this.blockKeys.length);
+        for (long key : this.blockKeys) {
+            Block block = this.toBlock(key);
+            if (block != null) {
+                blocks.add(block);
+            }
+        }
+
+        return Collections.unmodifiableList(blocks);
+    }
+
+    public int getBlockKeyCount() {
+        return this.blockKeys.length;
+    }
+
+    public long getBlockKey(int index) {
+        return this.blockKeys[index];
     }
 
     public List<Entity> getEntities() {
@@ -98,17 +135,50 @@ public final class LineTraceResults {
     }
 
     public Block getFirstBlock() {
-        return this.firstBlock;
+        return this.toBlock(this.firstBlock);
     }
 
     public Block getStartBlock() {
-        return this.startBlock;
+        return this.toBlock(this.startBlock);
     }
 
     public Block getEndBlock() {
+        return this.toBlock(this.endBlock);
+    }
+
+    /**
+     * @return the key of the first block hit, or {@link BlockKey#NONE}
+     */
+    public long getFirstBlockKey() {
+        return this.firstBlock;
+    }
+
+    public long getStartBlockKey() {
+        return this.startBlock;
+    }
+
+    public long getEndBlockKey() {
         return this.endBlock;
     }
 
+    private Block toBlock(long key) {
+        if (key == BlockKey.NONE) {
+            return null;
+        }
+
+        BlockSource source = this.resolveBlockSource();
+        return source == null ? null : source.getBlock(BlockKey.getX(key), BlockKey.getY(key), BlockKey.getZ(key));
+    }
+
+    private BlockSource resolveBlockSource() {
+        if (this.blockSource != null) {
+            return this.blockSource;
+        }
+
+        World world = this.start == null ? null : this.start.getWorld();
+        return world == null ? null : BlockSource.live(world);
+    }
+
     public Direction getDirection() {
         return this.direction;
     }
@@ -133,8 +203,9 @@ public final class LineTraceResults {
         return new LineTraceResults.LineTraceResultsBuilder();
     }
 
-    private LineTraceResults(List<Block> blocks, List<Entity> entities, List<Location> tracePoints, List<Location> preImpactPoints, List<Location> postImpactPoints, Block firstBlock, Block startBlock, Block endBlock, Direction direction, Location impactPoint, Location impactNormal, Direction impactNormalDirection, Location end, Location start, boolean hitAnything) {
-        this.blocks = blocks;
+    private LineTraceResults(long[] blockKeys, BlockSource blockSource, List<Entity> entities, List<Location> tracePoints, List<Location> preImpactPoints, List<Location> postImpactPoints, long firstBlock, long startBlock, long endBlock, Direction direction, Location impactPoint, Location impactNormal, Direction impactNormalDirection, Location end, Location start, boolean hitAnything) {
+        this.blockKeys = blockKeys;
+        this.blockSource = blockSource;
         this.entities = entities;
         this.tracePoints = tracePoints;
         this.preImpactPoints = preImpactPoints;
@@ -152,14 +223,16 @@ public final class LineTraceResults {
     }
 
     public static class LineTraceResultsBuilder {
-        private ArrayList<Block> blocks;
+        private long[] blocks;
+        private int blockCount;
+        private BlockSource blockSource;
         private ArrayList<Entity> entities;
         private ArrayList<Location> tracePoints;
         private ArrayList<Location> preImpactPoints;
         private ArrayList<Location> postImpactPoints;
-        private Block firstBlock;
-        private Block startBlock;
-        private Block endBlock;
+        private long firstBlock = BlockKey.NONE;
+        private long startBlock = BlockKey.NONE;
+        private long endBlock = BlockKey.NONE;
         private Direction direction;
         private Location impactPoint;
         private Location impactNormal;
@@ -172,11 +245,17 @@ public final class LineTraceResults {
         }
 
         public LineTraceResults.LineTraceResultsBuilder block(Block block) {
+            return this.blockKey(BlockKey.pack(block));
+        }
+
+        public LineTraceResults.LineTraceResultsBuilder blockKey(long blockKey) {
             if (this.blocks == null) {
-                this.blocks = new ArrayList<Block>();
+                this.blocks = new long[16];
+            } else if (this.blockCount == this.blocks.length) {
+                this.blocks = Arrays.copyOf(this.blocks, this.blockCount << 1);
             }
 
-            this.blocks.add(block);
+            this.blocks[this.blockCount++] = blockKey;
             return this;
         }
 
@@ -184,20 +263,21 @@ public final class LineTraceResults {
             if (blocks == null) {
                 throw new NullPointerException("blocks cannot be null");
             } else {
-                if (this.blocks == null) {
-                    this.blocks = new ArrayList<Block>();
-                }
-
-                this.blocks.addAll(blocks);
+                blocks.forEach(this::block);
                 return this;
             }
         }
 
         public LineTraceResults.LineTraceResultsBuilder clearBlocks() {
-            if (this.blocks != null) {
-                this.blocks.clear();
-            }
+            this.blockCount = 0;
+            return this;
+        }
 
+        /**
+         * Sets where the results' Blocks are materialised from, defaults to the start location's live world.
+         */
+        public LineTraceResults.LineTraceResultsBuilder blockSource(BlockSource blockSource) {
+            this.blockSource = blockSource;
             return this;
         }
 
@@ -322,16 +402,28 @@ public final class LineTraceResults {
         }
 
         public LineTraceResults.LineTraceResultsBuilder firstBlock(Block firstBlock) {
+            return this.firstBlockKey(firstBlock == null ? BlockKey.NONE : BlockKey.pack(firstBlock));
+        }
+
+        public LineTraceResults.LineTraceResultsBuilder firstBlockKey(long firstBlock) {
             this.firstBlock = firstBlock;
             return this;
         }
 
         public LineTraceResults.LineTraceResultsBuilder startBlock(Block startBlock) {
+            return this.startBlockKey(startBlock == null ? BlockKey.NONE : BlockKey.pack(startBlock));
+        }
+
+        public LineTraceResults.LineTraceResultsBuilder startBlockKey(long startBlock) {
             this.startBlock = startBlock;
             return this;
         }
 
         public LineTraceResults.LineTraceResultsBuilder endBlock(Block endBlock) {
+            return this.endBlockKey(endBlock == null ? BlockKey.NONE : BlockKey.pack(endBlock));
+        }
+
+        public LineTraceResults.LineTraceResultsBuilder endBlockKey(long endBlock) {
             this.endBlock = endBlock;
             return this;
         }
@@ -372,17 +464,7 @@ public final class LineTraceResults {
         }
 
         public LineTraceResults build() {
-            List blocks;
-            switch (this.blocks == null ? 0 : this.blocks.size()) {
-                case 0:
-                    blocks = Collections.emptyList();
-                    break;
-                case 1:
-                    blocks = Collections.singletonList(this.blocks.get(0));
-                    break;
-                default:
-                    blocks = Collections.unmodifiableList(new ArrayList<Block>(this.blocks));
-            }
+            long[] blocks = this.blocks == null ? new long[0] : Arrays.copyOf(this.blocks, this.blockCount);
 
             List entities;
             switch (this.entities == null ? 0 : this.entities.size()) {
@@ -432,11 +514,11 @@ public final class LineTraceResults {
                     postImpactPoints = Collections.unmodifiableList(new ArrayList<Location>(this.postImpactPoints));
             }
 
-            return new LineTraceResults(blocks, entities, tracePoints, preImpactPoints, postImpactPoints, this.firstBlock, this.startBlock, this.endBlock, this.direction, this.impactPoint, this.impactNormal, this.impactNormalDirection, this.end, this.start, this.hitAnything);
+            return new LineTraceResults(blocks, this.blockSource, entities, tracePoints, preImpactPoints, postImpactPoints, this.firstBlock, this.startBlock, this.endBlock, this.direction, this.impactPoint, this.impactNormal, this.impactNormalDirection, this.end, this.start, this.hitAnything);
         }
 
         public String toString() {
-            return "LineTraceResults.LineTraceResultsBuilder(blocks=" + this.blocks + ", entities=" + this.entities + ", tracePoints=" + this.tracePoints + ", preImpactPoints=" + this.preImpactPoints + ", postImpactPoints=" + this.postImpactPoints + ", firstBlock=" + this.firstBlock + ", startBlock=" + this.startBlock + ", endBlock=" + this.endBlock + ", direction=" + this.direction + ", impactPoint=" + this.impactPoint + ", impactNormal=" + this.impactNormal + ", impactNormalDirection=" + this.impactNormalDirection + ", end=" + this.end + ", start=" + this.start + ", hitAnything=" + this.hitAnything + ")";
+            return "LineTraceResults.LineTraceResultsBuilder(blocks=" + this.blockCount + ", entities=" + this.entities + ", tracePoints=" + this.tracePoints + ", preImpactPoints=" + this.preImpactPoints + ", postImpactPoints=" + this.postImpactPoints + ", firstBlock=" + this.firstBlock + ", startBlock=" + this.startBlock + ", endBlock=" + this.endBlock + ", direction=" + this.direction + ", impactPoint=" + this.impactPoint + ", impactNormal=" + this.impactNormal + ", impactNormalDirection=" + this.impactNormalDirection + ", end=" + this.end + ", start=" + this.start + ", hitAnything=" + this.hitAnything + ")";
         }
     }
 }
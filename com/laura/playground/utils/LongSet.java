@@ -0,0 +1,127 @@
+package com.laura.playground.utils;
+
+import java.util.Arrays;
+
+/**
+ * An insertion-ordered set of primitive longs, without boxing.
+ * <br>
+ * Values are kept densely in the order they were added, and found through an open-addressed table of indexes into them, so
+ * {@link #add(long)} and {@link #contains(long)} are O(1) and iterating by {@link #get(int)} is a plain array walk. Values cannot
+ * be removed individually, only {@link #clear() cleared} all at once.
+ */
+public class LongSet {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] values;
+    private int[] table;
+    private int size;
+
+    public LongSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongSet(int capacity) {
+        this.values = new long[Math.max(1, capacity)];
+        this.table = new int[tableSize(this.values.length)];
+        this.size = 0;
+    }
+
+    /**
+     * @return true if the value was not already in the set
+     */
+    public boolean add(long value) {
+        int mask = this.table.length - 1;
+        int slot = hash(value) & mask;
+        int index;
+        while ((index = this.table[slot]) != 0) {
+            if (this.values[index - 1] == value) {
+                return false;
+            }
+
+            slot = slot + 1 & mask;
+        }
+
+        if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.size << 1);
+        }
+
+        this.values[this.size++] = value;
+        this.table[slot] = this.size;
+        if (this.size * 2 > this.table.length) {
+            this.rehash(this.table.length << 1);
+        }
+
+        return true;
+    }
+
+    public boolean contains(long value) {
+        int mask = this.table.length - 1;
+        int slot = hash(value) & mask;
+        int index;
+        while ((index = this.table[slot]) != 0) {
+            if (this.values[index - 1] == value) {
+                return true;
+            }
+
+            slot = slot + 1 & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the value added index-th, counting from 0
+     */
+    public long get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.size);
+        }
+
+        return this.values[index];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(this.table, 0);
+        this.size = 0;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(this.values, this.size);
+    }
+
+    private void rehash(int tableSize) {
+        int[] table = new int[tableSize];
+        int mask = tableSize - 1;
+        for (int i = 0; i < this.size; i++) {
+            int slot = hash(this.values[i]) & mask;
+            while (table[slot] != 0) {
+                slot = slot + 1 & mask;
+            }
+
+            table[slot] = i + 1;
+        }
+
+        this.table = table;
+    }
+
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+    }
+
+    private static int hash(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+
+    public String toString() {
+        return "LongSet(size=" + this.size + ")";
+    }
+}
@@ -0,0 +1,254 @@
+package com.laura.playground.utils;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Color;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.Particle.DustOptions;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+/**
+ * Collects each player's dust particles over a tick and sends them only to the players allowed to see them.
+ * <br>
+ * Points are grouped by owner and colour into reusable {@link PointBuffer}s, each colour sharing one interned
+ * {@link DustOptions} from {@link ParticleUtils#createParticle(int, int, int)}. {@link #flush()} sends each owner's points to
+ * the owner, then to the other players in their world that the {@link ViewerPolicy} allows, through
+ * {@link Player#spawnParticle}. Points further than {@value #VIEW_DISTANCE} blocks from a viewer, the range
+ * {@link World#spawnParticle} broadcasts to, are skipped.
+ * <br>
+ * Every particle is its own packet, so points a viewer could not tell apart are sent once: points of one colour that fall in
+ * the same cell of a grid {@value #PARTICLE_SIZE} blocks wide are merged, and the cells double in size for every doubling of
+ * the distance past {@value #FULL_DETAIL_DISTANCE} blocks, as a particle covers less of the viewer's screen the further it is.
+ * <br>
+ * Players watching someone else's arc get a share of it scaled by how far they are from it: past
+ * {@value #FULL_DETAIL_DISTANCE} blocks from the arc's nearest point, only every second point of it is sent, and half as many
+ * again for every further doubling of the distance. An owner stands at the start of their own arc, so always gets all of it.
+ * <br><br>
+ * Each viewer receives at most the per-viewer budget of particles a tick. Owners are served first, so a player always sees
+ * their own arc before anyone else's, and whatever does not fit is counted in {@link #getDropped()}.
+ */
+public class ParticleBatch {
+    private static final double VIEW_DISTANCE = 32.0D;
+    private static final double VIEW_DISTANCE_SQUARED = VIEW_DISTANCE * VIEW_DISTANCE;
+    private static final int DEFAULT_VIEWER_BUDGET = 512;
+    private static final double PARTICLE_SIZE = 0.15D;
+    private static final double FULL_DETAIL_DISTANCE = 8.0D;
+    private static final double FULL_DETAIL_DISTANCE_SQUARED = FULL_DETAIL_DISTANCE * FULL_DETAIL_DISTANCE;
+
+    private final Map<Player, Map<Integer, PointBuffer>> points = new LinkedHashMap<Player, Map<Integer, PointBuffer>>();
+    private final Map<Player, Integer> sent = new HashMap<Player, Integer>();
+    private final LongSet occupiedCells = new LongSet(256);
+    private ViewerPolicy viewerPolicy = ViewerPolicy.OWNER_ONLY;
+    private int viewerBudget = DEFAULT_VIEWER_BUDGET;
+    private int size = 0;
+    private long dropped = 0L;
+    private long merged = 0L;
+
+    public ParticleBatch viewerPolicy(ViewerPolicy viewerPolicy) {
+        this.viewerPolicy = viewerPolicy == null ? ViewerPolicy.OWNER_ONLY : viewerPolicy;
+        return this;
+    }
+
+    /**
+     * Sets the most particles any one player is sent per flush.
+     */
+    public ParticleBatch viewerBudget(int viewerBudget) {
+        this.viewerBudget = Math.max(0, viewerBudget);
+        return this;
+    }
+
+    public void add(Player owner, double x, double y, double z, int r, int g, int b) {
+        if (owner != null) {
+            this.points.computeIfAbsent(owner, o -> new HashMap<Integer, PointBuffer>())
+                    .computeIfAbsent(ParticleUtils.packRGB(r, g, b), rgb -> new PointBuffer())
+                    .add(x, y, z);
+            this.size++;
+        }
+    }
+
+    public void add(Player owner, Location location, int r, int g, int b) {
+        if (location != null) {
+            this.add(owner, location.getX(), location.getY(), location.getZ(), r, g, b);
+        }
+    }
+
+    public void add(Player owner, Location location, Color color) {
+        this.add(owner, location, color.getRed(), color.getGreen(), color.getBlue());
+    }
+
+    public void addLine(Player owner, List<Location> locations, Color color) {
+        this.addLine(owner, locations, color.getRed(), color.getGreen(), color.getBlue(), color.getRed(), color.getGreen(), color.getBlue());
+    }
+
+    /**
+     * Adds the locations with their colour blended from start to end, as {@link ParticleUtils#renderLine} does.
+     */
+    public void addLine(Player owner, List<Location> locations, int startR, int startG, int startB, int endR, int endG, int endB) {
+        if (locations != null) {
+            for (int i = 0; i < locations.size(); ++i) {
+                int curR = startR == endR ? startR : Mathsf.remap(0, locations.size(), i, startR, endR);
+                int curG = startG == endG ? startG : Mathsf.remap(0, locations.size(), i, startG, endG);
+                int curB = startB == endB ? startB : Mathsf.remap(0, locations.size(), i, startB, endB);
+                this.add(owner, locations.get(i), curR, curG, curB);
+            }
+        }
+    }
+
+    /**
+     * @return the number of points added since the last flush
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the total number of particles not sent because a viewer's budget was used up
+     */
+    public long getDropped() {
+        return this.dropped;
+    }
+
+    /**
+     * @return the total number of particles not sent because they would have overlapped one already sent to the same viewer,
+     *         or because the viewer was too far from the arc to be sent all of it
+     */
+    public long getMerged() {
+        return this.merged;
+    }
+
+    /**
+     * Sends every owner's points to the owner, then to the other players allowed to see them, then clears the batch.
+     */
+    public void flush() {
+        this.sent.clear();
+
+        for (Map.Entry<Player, Map<Integer, PointBuffer>> entry : this.points.entrySet()) {
+            Player owner = entry.getKey();
+            if (owner.isOnline()) {
+                this.send(owner, entry.getValue());
+            }
+        }
+
+        if (this.viewerPolicy != ViewerPolicy.OWNER_ONLY) {
+            for (Map.Entry<Player, Map<Integer, PointBuffer>> entry : this.points.entrySet()) {
+                Player owner = entry.getKey();
+                if (!owner.isOnline()) {
+                    continue;
+                }
+
+                for (Player viewer : owner.getWorld().getPlayers()) {
+                    if (!viewer.equals(owner) && this.viewerPolicy.canSee(viewer, owner)) {
+                        this.send(viewer, entry.getValue());
+                    }
+                }
+            }
+        }
+
+        this.clear();
+    }
+
+    private void send(Player viewer, Map<Integer, PointBuffer> byColour) {
+        Location eye = viewer.getLocation();
+        double eyeX = eye.getX();
+        double eyeY = eye.getY();
+        double eyeZ = eye.getZ();
+        int budget = this.viewerBudget - this.sent.getOrDefault(viewer, 0);
+        int stride = 1 << detailLevel(nearestDistanceSquared(byColour, eyeX, eyeY, eyeZ));
+        int count = 0;
+
+        for (Map.Entry<Integer, PointBuffer> entry : byColour.entrySet()) {
+            PointBuffer buffer = entry.getValue();
+            if (buffer.isEmpty()) {
+                continue;
+            }
+
+            DustOptions dust = ParticleUtils.createParticle(entry.getKey());
+            this.occupiedCells.clear();
+            for (int i = 0; i < buffer.size(); i++) {
+                double distanceSquared = buffer.distanceSquared(i, eyeX, eyeY, eyeZ);
+                if (distanceSquared > VIEW_DISTANCE_SQUARED) {
+                    continue;
+                } else if (i % stride != 0) {
+                    this.merged++;
+                    continue;
+                } else if (!this.occupiedCells.add(cellKey(buffer.getX(i) - eyeX, buffer.getY(i) - eyeY, buffer.getZ(i) - eyeZ, distanceSquared))) {
+                    this.merged++;
+                    continue;
+                } else if (count >= budget) {
+                    this.dropped++;
+                    continue;
+                }
+
+                viewer.spawnParticle(Particle.REDSTONE, buffer.getX(i), buffer.getY(i), buffer.getZ(i), 1, dust);
+                count++;
+            }
+        }
+
+        this.sent.merge(viewer, count, Integer::sum);
+    }
+
+    private static double nearestDistanceSquared(Map<Integer, PointBuffer> byColour, double x, double y, double z) {
+        double nearest = Double.MAX_VALUE;
+        for (PointBuffer buffer : byColour.values()) {
+            for (int i = 0; i < buffer.size(); i++) {
+                nearest = Math.min(nearest, buffer.distanceSquared(i, x, y, z));
+            }
+        }
+
+        return nearest;
+    }
+
+    /**
+     * @return 0 within {@value #FULL_DETAIL_DISTANCE} blocks, plus one for every doubling of the distance past it
+     */
+    private static int detailLevel(double distanceSquared) {
+        int level = 0;
+        for (double reach = FULL_DETAIL_DISTANCE_SQUARED; distanceSquared > reach && reach < VIEW_DISTANCE_SQUARED; reach *= 4.0D) {
+            level++;
+        }
+
+        return level;
+    }
+
+    /**
+     * Packs the grid cell a point falls in, relative to the viewer, with the grid's level of detail. Points are within
+     * {@value #VIEW_DISTANCE} blocks of the viewer, so each coordinate fits in 16 bits even at the finest grid.
+     */
+    private static long cellKey(double dx, double dy, double dz, double distanceSquared) {
+        int level = detailLevel(distanceSquared);
+        double cellSize = PARTICLE_SIZE * (1 << level);
+        long cellX = (long) Math.floor(dx / cellSize) & 0xFFFFL;
+        long cellY = (long) Math.floor(dy / cellSize) & 0xFFFFL;
+        long cellZ = (long) Math.floor(dz / cellSize) & 0xFFFFL;
+        return (long) level << 48 | cellX << 32 | cellY << 16 | cellZ;
+    }
+
+    /**
+     * Empties the batch, keeping its buffers to be refilled next tick. Owners who added nothing this tick are dropped.
+     */
+    public void clear() {
+        this.points.values().removeIf(byColour -> byColour.values().stream().allMatch(PointBuffer::isEmpty));
+        for (Map<Integer, PointBuffer> byColour : this.points.values()) {
+            byColour.values().forEach(PointBuffer::clear);
+        }
+
+        this.sent.clear();
+        this.size = 0;
+    }
+
+    /**
+     * Drops the batch's buffers along with their points.
+     */
+    public void reset() {
+        this.points.clear();
+        this.sent.clear();
+        this.size = 0;
+        this.dropped = 0L;
+        this.merged = 0L;
+    }
+}
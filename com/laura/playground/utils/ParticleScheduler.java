@@ -0,0 +1,149 @@
+package com.laura.playground.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shares a global per-tick particle budget between everyone drawing that tick.
+ * <br>
+ * Each tick, every drawer {@link #request requests} the particles it would draw at full detail, weighted by its priority,
+ * then {@link #allocate()} splits the budget by weighted max-min fairness: anyone asking for less than their share gets all of
+ * it, and what they leave is shared among the rest by weight. Each {@link Share} then reports the fraction of its request it
+ * was granted, for the drawer to lower its detail to fit.
+ */
+public class ParticleScheduler {
+    private static final int DEFAULT_TICK_BUDGET = 4096;
+
+    private final List<ParticleScheduler.Share> shares = new ArrayList<ParticleScheduler.Share>();
+    private int tickBudget;
+    private int lastDropped = 0;
+    private long dropped = 0L;
+
+    public ParticleScheduler() {
+        this(DEFAULT_TICK_BUDGET);
+    }
+
+    public ParticleScheduler(int tickBudget) {
+        this.tickBudget = Math.max(0, tickBudget);
+    }
+
+    public void setTickBudget(int tickBudget) {
+        this.tickBudget = Math.max(0, tickBudget);
+    }
+
+    public int getTickBudget() {
+        return this.tickBudget;
+    }
+
+    /**
+     * Adds a request for this tick, granted nothing until {@link #allocate()} is called.
+     *
+     * @param demand the particles wanted at full detail
+     * @param weight the priority of this request relative to the others, greater than 0
+     */
+    public ParticleScheduler.Share request(int demand, double weight) {
+        ParticleScheduler.Share share = new ParticleScheduler.Share(Math.max(0, demand), weight > 0.0D ? weight : 1.0D);
+        this.shares.add(share);
+        return share;
+    }
+
+    /**
+     * Splits the tick budget between this tick's requests and clears them, ready for the next tick.
+     */
+    public void allocate() {
+        List<ParticleScheduler.Share> pending = new ArrayList<ParticleScheduler.Share>(this.shares.size());
+        int remaining = this.tickBudget;
+        int demanded = 0;
+        for (ParticleScheduler.Share share : this.shares) {
+            demanded += share.demand;
+            if (share.demand > 0) {
+                pending.add(share);
+            }
+        }
+
+        while (!pending.isEmpty() && remaining > 0) {
+            double totalWeight = 0.0D;
+            for (ParticleScheduler.Share share : pending) {
+                totalWeight += share.weight;
+            }
+
+            // Fully grant everyone whose outstanding demand fits in their fair share, then share what is left again
+            boolean granted = false;
+            int available = remaining;
+            for (int i = pending.size() - 1; i >= 0; i--) {
+                ParticleScheduler.Share share = pending.get(i);
+                int outstanding = share.demand - share.allowance;
+                if (outstanding <= available * share.weight / totalWeight) {
+                    share.allowance = share.demand;
+                    remaining -= outstanding;
+                    pending.remove(i);
+                    granted = true;
+                }
+            }
+
+            if (!granted) {
+                for (ParticleScheduler.Share share : pending) {
+                    share.allowance += (int) (remaining * share.weight / totalWeight);
+                }
+
+                break;
+            }
+        }
+
+        int allowed = 0;
+        for (ParticleScheduler.Share share : this.shares) {
+            allowed += share.allowance;
+        }
+
+        this.lastDropped = demanded - allowed;
+        this.dropped += this.lastDropped;
+        this.shares.clear();
+    }
+
+    /**
+     * @return the particles requested but not granted in the last {@link #allocate()}
+     */
+    public int getLastDropped() {
+        return this.lastDropped;
+    }
+
+    /**
+     * @return the particles requested but not granted since this scheduler was created or {@link #reset()}
+     */
+    public long getDropped() {
+        return this.dropped;
+    }
+
+    public void reset() {
+        this.shares.clear();
+        this.lastDropped = 0;
+        this.dropped = 0L;
+    }
+
+    public static class Share {
+        private final int demand;
+        private final double weight;
+        private int allowance;
+
+        private Share(int demand, double weight) {
+            this.demand = demand;
+            this.weight = weight;
+            this.allowance = 0;
+        }
+
+        public int getDemand() {
+            return this.demand;
+        }
+
+        public int getAllowance() {
+            return this.allowance;
+        }
+
+        /**
+         * @return the fraction of the demand that was granted, from 0 to 1, 1 if nothing was asked for
+         */
+        public double getLevel() {
+            return this.demand == 0 ? 1.0D : (double) this.allowance / (double) this.demand;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.laura.playground.utils;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.Color;
 import org.bukkit.Location;
@@ -8,6 +10,9 @@ import org.bukkit.Particle;
 import org.bukkit.Particle.DustOptions;
 
 public class ParticleUtils {
+    private static final int MAX_DUST_OPTIONS = 256;
+    private static final Map<Integer, DustOptions> DUST_OPTIONS = new ConcurrentHashMap<Integer, DustOptions>();
+
     public static Color cycleRainbow(double ratio) {
         double v = Mathsf.lerp(0.0D, 6.0D, Mathsf.clamp(0.0D, 1.0D, ratio));
         int stage = (int) Math.floor(v);
@@ -65,8 +70,32 @@ public class ParticleUtils {
         return createParticle(color.getRed(), color.getGreen(), color.getBlue());
     }
 
+    /**
+     * @return the shared DustOptions for this colour, DustOptions being immutable one instance is kept per colour used, for up
+     * to {@value #MAX_DUST_OPTIONS} colours. Colours past that, e.g. from a long blended line, get a new instance each time.
+     */
     public static DustOptions createParticle(int r, int g, int b) {
-        return new DustOptions(Color.fromRGB(r, g, b), 1.0F);
+        return createParticle(packRGB(r, g, b));
+    }
+
+    public static DustOptions createParticle(int rgb) {
+        DustOptions dust = DUST_OPTIONS.get(rgb);
+        if (dust == null) {
+            dust = new DustOptions(Color.fromRGB(rgb), 1.0F);
+            if (DUST_OPTIONS.size() < MAX_DUST_OPTIONS) {
+                DUST_OPTIONS.putIfAbsent(rgb, dust);
+            }
+        }
+
+        return dust;
+    }
+
+    public static int packRGB(int r, int g, int b) {
+        if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
+            throw new IllegalArgumentException("Colour out of range: " + r + ", " + g + ", " + b);
+        }
+
+        return r << 16 | g << 8 | b;
     }
 
     public static void renderLine(List<Location> locations, Color color) {
@@ -0,0 +1,142 @@
+package com.laura.playground.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * A growable buffer of x/y/z points held in primitive arrays.
+ * <br>
+ * Intended to be cleared and refilled rather than re-created, so hot paths can write thousands of points per tick without
+ * creating a {@link Location} for each of them. Locations are only built when {@link #toLocations(World)} or
+ * {@link #toLocation(World, int)} are called.
+ */
+public class PointBuffer {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private double[] xs;
+    private double[] ys;
+    private double[] zs;
+    private int size;
+
+    public PointBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PointBuffer(int capacity) {
+        int initial = Math.max(1, capacity);
+        this.xs = new double[initial];
+        this.ys = new double[initial];
+        this.zs = new double[initial];
+        this.size = 0;
+    }
+
+    public void add(double x, double y, double z) {
+        if (this.size == this.xs.length) {
+            this.grow(this.size + 1);
+        }
+
+        this.xs[this.size] = x;
+        this.ys[this.size] = y;
+        this.zs[this.size] = z;
+        this.size++;
+    }
+
+    public void add(PointBuffer other, int index) {
+        this.add(other.getX(index), other.getY(index), other.getZ(index));
+    }
+
+    public void set(int index, double x, double y, double z) {
+        this.checkIndex(index);
+        this.xs[index] = x;
+        this.ys[index] = y;
+        this.zs[index] = z;
+    }
+
+    public void truncate(int size) {
+        if (size < 0 || size > this.size) {
+            throw new IndexOutOfBoundsException("Cannot truncate to " + size + " with size " + this.size);
+        }
+
+        this.size = size;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public double getX(int index) {
+        this.checkIndex(index);
+        return this.xs[index];
+    }
+
+    public double getY(int index) {
+        this.checkIndex(index);
+        return this.ys[index];
+    }
+
+    public double getZ(int index) {
+        this.checkIndex(index);
+        return this.zs[index];
+    }
+
+    public double distanceSquared(int index, double x, double y, double z) {
+        double dx = this.getX(index) - x;
+        double dy = this.getY(index) - y;
+        double dz = this.getZ(index) - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    public Location toLocation(World world, int index) {
+        return new Location(world, this.getX(index), this.getY(index), this.getZ(index));
+    }
+
+    public List<Location> toLocations(World world) {
+        List<Location> locations = new ArrayList<Location>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            locations.add(new Location(world, this.xs[i], this.ys[i], this.zs[i]));
+        }
+
+        return locations;
+    }
+
+    /**
+     * @return a copy of this buffer trimmed to its current size, safe to keep after this buffer is cleared and reused
+     */
+    public PointBuffer copy() {
+        PointBuffer copy = new PointBuffer(this.size);
+        System.arraycopy(this.xs, 0, copy.xs, 0, this.size);
+        System.arraycopy(this.ys, 0, copy.ys, 0, this.size);
+        System.arraycopy(this.zs, 0, copy.zs, 0, this.size);
+        copy.size = this.size;
+        return copy;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, this.xs.length << 1);
+        this.xs = Arrays.copyOf(this.xs, capacity);
+        this.ys = Arrays.copyOf(this.ys, capacity);
+        this.zs = Arrays.copyOf(this.zs, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.size);
+        }
+    }
+
+    public String toString() {
+        return "PointBuffer(size=" + this.size + ")";
+    }
+}
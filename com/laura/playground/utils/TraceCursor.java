@@ -0,0 +1,212 @@
+package com.laura.playground.utils;
+
+import com.laura.playground.utils.geometry.Direction;
+import com.laura.playground.utils.world.BlockKey;
+import com.laura.playground.utils.world.BlockSource;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+/**
+ * Pulls the blocks along a {@link LineTrace} one at a time, walking the block grid as {@link TraceMode#VOXEL} does.
+ * <br>
+ * Nothing is looked up or allocated until it is asked for, a block's type is only read by {@link #getType()} or
+ * {@link #isImpact()}, and the walk goes no further than the last {@link #next()}, so a caller that only wants the first impact
+ * never visits the blocks beyond it. The getters describe the current block, and are only valid once {@link #next()} has
+ * returned true.
+ */
+public class TraceCursor {
+    private final LineTrace trace;
+    private final BlockSource source;
+    private final World world;
+    private final double startX;
+    private final double startY;
+    private final double startZ;
+    private final double deltaX;
+    private final double deltaY;
+    private final double deltaZ;
+    private final int endX;
+    private final int endY;
+    private final int endZ;
+    private final int stepX;
+    private final int stepY;
+    private final int stepZ;
+    private final double tDeltaX;
+    private final double tDeltaY;
+    private final double tDeltaZ;
+    private final int maxSteps;
+
+    private int x;
+    private int y;
+    private int z;
+    private double tMaxX;
+    private double tMaxY;
+    private double tMaxZ;
+    private double tEntry;
+    private Direction entryFace;
+    private int steps;
+    private boolean started;
+    private boolean done;
+    private Material type;
+
+    TraceCursor(LineTrace trace, BlockSource source, Location start, Location end) {
+        this.trace = trace;
+        this.source = source;
+        this.world = start.getWorld();
+        this.startX = start.getX();
+        this.startY = start.getY();
+        this.startZ = start.getZ();
+        this.deltaX = end.getX() - this.startX;
+        this.deltaY = end.getY() - this.startY;
+        this.deltaZ = end.getZ() - this.startZ;
+        this.x = Location.locToBlock(this.startX);
+        this.y = Location.locToBlock(this.startY);
+        this.z = Location.locToBlock(this.startZ);
+        this.endX = Location.locToBlock(end.getX());
+        this.endY = Location.locToBlock(end.getY());
+        this.endZ = Location.locToBlock(end.getZ());
+        this.stepX = (int) Math.signum(this.deltaX);
+        this.stepY = (int) Math.signum(this.deltaY);
+        this.stepZ = (int) Math.signum(this.deltaZ);
+
+        // Ratios along the line (0 = start, 1 = end) at which the next X/Y/Z block boundary is crossed, and the ratio between boundaries
+        this.tMaxX = this.stepX == 0 ? Double.POSITIVE_INFINITY : ((this.stepX > 0 ? this.x + 1 : this.x) - this.startX) / this.deltaX;
+        this.tMaxY = this.stepY == 0 ? Double.POSITIVE_INFINITY : ((this.stepY > 0 ? this.y + 1 : this.y) - this.startY) / this.deltaY;
+        this.tMaxZ = this.stepZ == 0 ? Double.POSITIVE_INFINITY : ((this.stepZ > 0 ? this.z + 1 : this.z) - this.startZ) / this.deltaZ;
+        this.tDeltaX = this.stepX == 0 ? Double.POSITIVE_INFINITY : Math.abs(1.0D / this.deltaX);
+        this.tDeltaY = this.stepY == 0 ? Double.POSITIVE_INFINITY : Math.abs(1.0D / this.deltaY);
+        this.tDeltaZ = this.stepZ == 0 ? Double.POSITIVE_INFINITY : Math.abs(1.0D / this.deltaZ);
+        this.maxSteps = Math.abs(this.endX - this.x) + Math.abs(this.endY - this.y) + Math.abs(this.endZ - this.z) + 1;
+        this.tEntry = 0.0D;
+        this.entryFace = Direction.SELF;
+    }
+
+    /**
+     * Moves to the next block along the line, the start block on the first call.
+     *
+     * @return false once the end block has been passed
+     */
+    public boolean next() {
+        if (this.done) {
+            return false;
+        } else if (!this.started) {
+            this.started = true;
+            return true;
+        }
+
+        double tExit = this.getExitRatio();
+        if ((this.x == this.endX && this.y == this.endY && this.z == this.endZ) || tExit >= 1.0D || ++this.steps >= this.maxSteps) {
+            this.done = true;
+            return false;
+        }
+
+        this.tEntry = tExit;
+        this.type = null;
+        if (this.tMaxX <= this.tMaxY && this.tMaxX <= this.tMaxZ) {
+            this.x += this.stepX;
+            this.tMaxX += this.tDeltaX;
+            this.entryFace = this.stepX > 0 ? Direction.WEST : Direction.EAST;
+        } else if (this.tMaxY <= this.tMaxZ) {
+            this.y += this.stepY;
+            this.tMaxY += this.tDeltaY;
+            this.entryFace = this.stepY > 0 ? Direction.DOWN : Direction.UP;
+        } else {
+            this.z += this.stepZ;
+            this.tMaxZ += this.tDeltaZ;
+            this.entryFace = this.stepZ > 0 ? Direction.NORTH : Direction.SOUTH;
+        }
+
+        return true;
+    }
+
+    /**
+     * Moves to the next block the trace would stop at, see {@link #isImpact()}.
+     *
+     * @return false if there are none before the end of the line
+     */
+    public boolean nextImpact() {
+        while (this.next()) {
+            if (this.isImpact()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public int getX() {
+        return this.x;
+    }
+
+    public int getY() {
+        return this.y;
+    }
+
+    public int getZ() {
+        return this.z;
+    }
+
+    public long getBlockKey() {
+        return BlockKey.pack(this.x, this.y, this.z);
+    }
+
+    /**
+     * Reads the block's type from the trace's {@link BlockSource} the first time it is asked for.
+     */
+    public Material getType() {
+        if (this.type == null) {
+            this.type = this.source.getType(this.x, this.y, this.z);
+        }
+
+        return this.type;
+    }
+
+    /**
+     * @return true if the trace's ignored blocks include this one
+     */
+    public boolean isIgnored() {
+        return this.trace.isIgnoredBlock(this.getBlockKey());
+    }
+
+    /**
+     * @return true if the trace would stop at this block, with the same rules as {@link Tracker#IMPACT}
+     */
+    public boolean isImpact() {
+        return this.trace.isImpactBlock(this.getType(), this.getBlockKey());
+    }
+
+    /**
+     * @return the face the line entered this block through, {@link Direction#SELF} for the start block
+     */
+    public Direction getEntryFace() {
+        return this.entryFace;
+    }
+
+    /**
+     * @return how far along the line, from 0 at its start to 1 at its end, it entered this block
+     */
+    public double getEntryRatio() {
+        return this.tEntry;
+    }
+
+    public double getEntryX() {
+        return this.startX + this.deltaX * this.tEntry;
+    }
+
+    public double getEntryY() {
+        return this.startY + this.deltaY * this.tEntry;
+    }
+
+    public double getEntryZ() {
+        return this.startZ + this.deltaZ * this.tEntry;
+    }
+
+    public Location getEntryPoint() {
+        return new Location(this.world, this.getEntryX(), this.getEntryY(), this.getEntryZ());
+    }
+
+    private double getExitRatio() {
+        return Math.min(1.0D, Math.min(this.tMaxX, Math.min(this.tMaxY, this.tMaxZ)));
+    }
+}
@@ -0,0 +1,12 @@
+package com.laura.playground.utils;
+
+public enum TraceMode {
+    /**
+     * Samples pointsPerBlock points per block along the line and checks the block at each of them.
+     */
+    SAMPLED,
+    /**
+     * Walks the block grid along the line (Amanatides & Woo), visiting every block the line passes through exactly once.
+     */
+    VOXEL;
+}
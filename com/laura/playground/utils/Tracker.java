@@ -6,5 +6,9 @@ public enum Tracker {
     IMPACT,
     FIRST_BLOCK,
     FIRST_ENTITY,
+    /**
+     * The trace, pre-impact and post-impact points. Without it a trace allocates no Locations beyond its impact.
+     */
+    POINTS,
     ALL;
 }
@@ -0,0 +1,38 @@
+package com.laura.playground.utils;
+
+import org.bukkit.GameMode;
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.Team;
+
+/**
+ * Decides which players besides its owner see a player's particles, see {@link ParticleBatch}.
+ */
+@FunctionalInterface
+public interface ViewerPolicy {
+    /**
+     * Nobody but the owner.
+     */
+    ViewerPolicy OWNER_ONLY = (viewer, owner) -> false;
+
+    /**
+     * Spectators currently spectating the owner, i.e. looking through their eyes.
+     */
+    ViewerPolicy SPECTATORS = (viewer, owner) -> viewer.getGameMode() == GameMode.SPECTATOR && owner.equals(viewer.getSpectatorTarget());
+
+    /**
+     * Players on the same scoreboard team as the owner, on the viewer's scoreboard.
+     */
+    ViewerPolicy TEAM = (viewer, owner) -> {
+        Team team = viewer.getScoreboard().getEntryTeam(owner.getName());
+        return team != null && team.hasEntry(viewer.getName());
+    };
+
+    /**
+     * Called only for players other than the owner, in the owner's world.
+     */
+    boolean canSee(Player viewer, Player owner);
+
+    default ViewerPolicy or(ViewerPolicy other) {
+        return (viewer, owner) -> this.canSee(viewer, owner) || other.canSee(viewer, owner);
+    }
+}
@@ -152,6 +152,20 @@ public enum Direction {
         return getRelative(block1.getLocation(), block2.getLocation());
     }
 
+    /**
+     * @return the first direction, in declaration order, whose offset is exactly (x, y, z), or null if there is none. Matches
+     * {@link #getRelative(Vector, Vector)} for the offset between two block positions without building either.
+     */
+    public static Direction fromOffset(int x, int y, int z) {
+        for (Direction direction : values()) {
+            if (direction.getX() == x && direction.getY() == y && direction.getZ() == z) {
+                return direction;
+            }
+        }
+
+        return null;
+    }
+
     public static Direction getRelative(Location location1, Location location2) {
         return getRelative(location1.toVector(), location2.toVector());
     }
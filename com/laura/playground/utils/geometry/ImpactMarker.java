@@ -0,0 +1,66 @@
+package com.laura.playground.utils.geometry;
+
+import com.laura.playground.utils.Mathsf;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.util.Vector;
+
+/**
+ * Unit-radius templates for the impact marker: a circle, and an X through it rotated by one of {@value #ROTATION_PHASES}
+ * phases, per {@link Axis} and point count.
+ * <br>
+ * Templates are built once with {@link Circle} and {@link Line} around the origin and stored as flat x, y, z arrays, so drawing
+ * the marker is a scale by its radius and a translation to its centre rather than rebuilding the geometry every frame. Both
+ * shapes scale linearly with the radius, so one template serves every radius.
+ */
+public final class ImpactMarker {
+    public static final int ROTATION_PHASES = 100;
+
+    private static final Map<Long, double[]> CIRCLES = new ConcurrentHashMap<Long, double[]>();
+    private static final Map<Long, double[]> CROSSES = new ConcurrentHashMap<Long, double[]>();
+
+    private ImpactMarker() {
+    }
+
+    /**
+     * @return the unit circle around the given axis as x, y, z offsets, matching
+     * {@link Circle#circlePointsAxisAligned(double, int, Axis)} at radius 1. Shared, do not modify.
+     */
+    public static double[] circle(Axis axis, int points) {
+        return CIRCLES.computeIfAbsent(key(axis, 0, points), key -> flatten(Circle.circlePointsAxisAligned(1.0D, points, axis)));
+    }
+
+    /**
+     * @return both lines of the unit X around the given axis, rotated by rotationPhase / {@value #ROTATION_PHASES} of a turn,
+     * as x, y, z offsets with the given number of points per line. Shared, do not modify.
+     */
+    public static double[] cross(Axis axis, int rotationPhase, int points) {
+        int phase = Math.floorMod(rotationPhase, ROTATION_PHASES);
+        return CROSSES.computeIfAbsent(key(axis, phase, points), key -> {
+            double offset = Mathsf.remap(0.0D, ROTATION_PHASES, (double) phase, 0.0D, 360.0D);
+            List<Vector> ends = Circle.circlePointsAxisAligned(1.0D, 4, axis, offset);
+            List<Vector> lines = Line.pointsAlongALine(ends.get(0), ends.get(2), points);
+            lines.addAll(Line.pointsAlongALine(ends.get(1), ends.get(3), points));
+            return flatten(lines);
+        });
+    }
+
+    private static long key(Axis axis, int phase, int points) {
+        return (long) axis.ordinal() << 48 | (long) phase << 32 | (long) points & 0xFFFFFFFFL;
+    }
+
+    private static double[] flatten(List<Vector> vectors) {
+        double[] offsets = new double[vectors.size() * 3];
+        int i = 0;
+        for (Vector vector : vectors) {
+            offsets[i++] = vector.getX();
+            offsets[i++] = vector.getY();
+            offsets[i++] = vector.getZ();
+        }
+
+        return offsets;
+    }
+}
@@ -164,7 +164,7 @@ public class Square {
     }
 
     public static List<Vector> getSquare(Vector maxLeft, Vector maxRight, Vector minLeft, Vector minRight, int pointsPerEdge) {
-        List<Vector> list = new ArrayList<Location>();
+        List<Vector> list = new ArrayList<Vector>();
         list.addAll(Line.pointsAlongALine(maxLeft, maxRight, pointsPerEdge));
         list.addAll(Line.pointsAlongALine(maxRight, minRight, pointsPerEdge));
         list.addAll(Line.pointsAlongALine(minRight, minLeft, pointsPerEdge));
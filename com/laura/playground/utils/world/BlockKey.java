@@ -0,0 +1,37 @@
+package com.laura.playground.utils.world;
+
+import org.bukkit.block.Block;
+
+/**
+ * Packs block coordinates into a single long, 26 bits of x, 26 bits of z and 12 bits of y, the same layout Minecraft uses for
+ * block positions. Covers the whole world border and any build height up to 2048 blocks either side of 0.
+ */
+public final class BlockKey {
+    /**
+     * Stands for no block. Decodes to x = -33554432, outside the world border, so it is never a real block's key.
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private BlockKey() {
+    }
+
+    public static long pack(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | (long) y & 0xFFFL;
+    }
+
+    public static long pack(Block block) {
+        return pack(block.getX(), block.getY(), block.getZ());
+    }
+
+    public static int getX(long key) {
+        return (int) (key >> 38);
+    }
+
+    public static int getY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    public static int getZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+}
@@ -0,0 +1,102 @@
+package com.laura.playground.utils.world;
+
+import com.laura.playground.utils.LongSet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.bukkit.block.Block;
+
+/**
+ * An insertion-ordered set of block positions.
+ * <br>
+ * Positions are held as packed {@link BlockKey}s in a {@link LongSet}, rather than checked by {@link Block#equals} against
+ * every block already added, so adding n blocks is O(n) rather than O(n^2). No {@link Block} is kept: those passed in are
+ * only read for their coordinates, and blocks are only created again by {@link #asArrayList(BlockSource)}.
+ */
+public class BlockSet {
+    private final LongSet keys;
+
+    public BlockSet() {
+        this.keys = new LongSet();
+    }
+
+    /**
+     * @return false if a block at the same coordinates was already added
+     */
+    public boolean add(Block block) {
+        return this.keys.add(BlockKey.pack(block));
+    }
+
+    /**
+     * @return false if this {@link BlockKey} was already added
+     */
+    public boolean add(long key) {
+        return this.keys.add(key);
+    }
+
+    /**
+     * @return true only if every block was added, false if any was already in the set
+     */
+    public boolean addAll(Collection<? extends Block> blocks) {
+        boolean addedAll = true;
+        for (Block block : blocks) {
+            if (!this.add(block)) {
+                addedAll = false;
+            }
+        }
+
+        return addedAll;
+    }
+
+    public boolean contains(Block block) {
+        return this.keys.contains(BlockKey.pack(block));
+    }
+
+    public boolean contains(long key) {
+        return this.keys.contains(key);
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return this.keys.contains(BlockKey.pack(x, y, z));
+    }
+
+    public int size() {
+        return this.keys.size();
+    }
+
+    public boolean isEmpty() {
+        return this.keys.isEmpty();
+    }
+
+    public long getKey(int index) {
+        return this.keys.get(index);
+    }
+
+    public void clear() {
+        this.keys.clear();
+    }
+
+    /**
+     * @return the keys in the order they were added
+     */
+    public long[] toKeyArray() {
+        return this.keys.toArray();
+    }
+
+    /**
+     * @return a new list of the blocks in the order they were added, created through the given source
+     */
+    public ArrayList<Block> asArrayList(BlockSource source) {
+        ArrayList<Block> blocks = new ArrayList<Block>(this.keys.size());
+        for (int i = 0; i < this.keys.size(); i++) {
+            long key = this.keys.get(i);
+            Block block = source.getBlock(BlockKey.getX(key), BlockKey.getY(key), BlockKey.getZ(key));
+            if (block != null) {
+                blocks.add(block);
+            }
+        }
+
+        return blocks;
+    }
+}
@@ -0,0 +1,35 @@
+package com.laura.playground.utils.world;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+/**
+ * Read access to block types for tracing, so traces can run against something other than the live world (e.g. chunk snapshots
+ * on a worker thread).
+ */
+public interface BlockSource {
+
+    World getWorld();
+
+    Material getType(int x, int y, int z);
+
+    /**
+     * Only used to hand Block handles back in trace results, implementations must not read the live world here.
+     */
+    default Block getBlock(int x, int y, int z) {
+        return this.getWorld().getBlockAt(x, y, z);
+    }
+
+    /**
+     * @return a source for a single trace to read through, which may remember what it last read to speed up the next read, so
+     *         must not be shared between threads. By default the source itself
+     */
+    default BlockSource reader() {
+        return this;
+    }
+
+    static BlockSource live(World world) {
+        return new LiveBlockSource(world);
+    }
+}
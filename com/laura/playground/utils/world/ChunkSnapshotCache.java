@@ -0,0 +1,116 @@
+package com.laura.playground.utils.world;
+
+import com.laura.playground.utils.LongSet;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+/**
+ * Keeps the most recently used chunk snapshots of each world across ticks, so a chunk is only re-snapshotted when it changed,
+ * fell out of the LRU, or its snapshot is older than maxAge ticks (catching changes that fire no event, e.g. redstone or growth).
+ * <br>
+ * Main thread only, the {@link SnapshotBlockSource}s it hands out are safe to read from any thread.
+ */
+public class ChunkSnapshotCache {
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final int DEFAULT_MAX_AGE = 20;
+
+    private final int capacity;
+    private final int maxAge;
+    private final Map<UUID, LinkedHashMap<Long, ChunkSnapshotCache.Entry>> worlds;
+    private long tick;
+
+    public ChunkSnapshotCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_AGE);
+    }
+
+    public ChunkSnapshotCache(int capacity, int maxAge) {
+        this.capacity = capacity;
+        this.maxAge = maxAge;
+        this.worlds = new HashMap<UUID, LinkedHashMap<Long, ChunkSnapshotCache.Entry>>();
+        this.tick = 0L;
+    }
+
+    /**
+     * Captures the loaded chunks among the given {@link SnapshotBlockSource#chunkKey(int, int) chunk keys}, e.g. the union of
+     * several players' regions so they can share one source.
+     */
+    public SnapshotBlockSource capture(World world, LongSet chunkKeys) {
+        Map<Long, ChunkSnapshot> chunks = new HashMap<Long, ChunkSnapshot>(chunkKeys.size() * 2);
+
+        for (int i = 0; i < chunkKeys.size(); i++) {
+            long key = chunkKeys.get(i);
+            ChunkSnapshot snapshot = this.get(world, SnapshotBlockSource.chunkX(key), SnapshotBlockSource.chunkZ(key));
+            if (snapshot != null) {
+                chunks.put(key, snapshot);
+            }
+        }
+
+        return new SnapshotBlockSource(world, chunks);
+    }
+
+    /**
+     * @return a snapshot of the chunk, or null if it is not loaded
+     */
+    public ChunkSnapshot get(World world, int chunkX, int chunkZ) {
+        if (!world.isChunkLoaded(chunkX, chunkZ)) {
+            return null;
+        }
+
+        LinkedHashMap<Long, ChunkSnapshotCache.Entry> snapshots = this.worlds.computeIfAbsent(world.getUID(), uid -> this.createLru());
+        long key = SnapshotBlockSource.chunkKey(chunkX, chunkZ);
+        ChunkSnapshotCache.Entry entry = snapshots.get(key);
+        if (entry == null || this.tick - entry.capturedAt > this.maxAge) {
+            entry = new ChunkSnapshotCache.Entry(world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false), this.tick);
+            snapshots.put(key, entry);
+        }
+
+        return entry.snapshot;
+    }
+
+    public void invalidate(Block block) {
+        this.invalidate(block.getWorld(), block.getX() >> 4, block.getZ() >> 4);
+    }
+
+    public void invalidate(World world, int chunkX, int chunkZ) {
+        LinkedHashMap<Long, ChunkSnapshotCache.Entry> snapshots = this.worlds.get(world.getUID());
+        if (snapshots != null) {
+            snapshots.remove(SnapshotBlockSource.chunkKey(chunkX, chunkZ));
+        }
+    }
+
+    /**
+     * Call once per tick to age the cached snapshots.
+     */
+    public void tick() {
+        this.tick++;
+    }
+
+    public void clear() {
+        this.worlds.clear();
+    }
+
+    private LinkedHashMap<Long, ChunkSnapshotCache.Entry> createLru() {
+        return new LinkedHashMap<Long, ChunkSnapshotCache.Entry>(64, 0.75F, true) {
+            protected boolean removeEldestEntry(Map.Entry<Long, ChunkSnapshotCache.Entry> eldest) {
+                return this.size() > ChunkSnapshotCache.this.capacity;
+            }
+        };
+    }
+
+    private static class Entry {
+        private final ChunkSnapshot snapshot;
+        private final long capturedAt;
+
+        private Entry(ChunkSnapshot snapshot, long capturedAt) {
+            this.snapshot = snapshot;
+            this.capturedAt = capturedAt;
+        }
+    }
+}
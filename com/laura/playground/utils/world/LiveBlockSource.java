@@ -0,0 +1,23 @@
+package com.laura.playground.utils.world;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+
+/**
+ * Reads straight from the live world, main thread only.
+ */
+public class LiveBlockSource implements BlockSource {
+    private final World world;
+
+    public LiveBlockSource(World world) {
+        this.world = world;
+    }
+
+    public World getWorld() {
+        return this.world;
+    }
+
+    public Material getType(int x, int y, int z) {
+        return this.world.getBlockAt(x, y, z).getType();
+    }
+}
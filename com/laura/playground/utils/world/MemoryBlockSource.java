@@ -0,0 +1,79 @@
+package com.laura.playground.utils.world;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+/**
+ * A synthetic world held in memory, for running traces off-server, e.g. in benchmarks.
+ * <br>
+ * Blocks are stored in 16x16x16 sections and anything never set reads as AIR. Without a backing World no Block handles are
+ * handed out, so traces against it only report impacts, points and faces.
+ */
+public class MemoryBlockSource implements BlockSource {
+    private final World world;
+    private final Map<Long, Material[]> sections;
+
+    public MemoryBlockSource() {
+        this(null);
+    }
+
+    public MemoryBlockSource(World world) {
+        this.world = world;
+        this.sections = new HashMap<Long, Material[]>();
+    }
+
+    public World getWorld() {
+        return this.world;
+    }
+
+    public Material getType(int x, int y, int z) {
+        Material[] section = this.sections.get(sectionKey(x >> 4, y >> 4, z >> 4));
+        return section == null ? Material.AIR : section[index(x, y, z)];
+    }
+
+    public Block getBlock(int x, int y, int z) {
+        return this.world == null ? null : this.world.getBlockAt(x, y, z);
+    }
+
+    public MemoryBlockSource set(int x, int y, int z, Material material) {
+        Material[] section = this.sections.computeIfAbsent(sectionKey(x >> 4, y >> 4, z >> 4), key -> {
+            Material[] blocks = new Material[4096];
+            Arrays.fill(blocks, Material.AIR);
+            return blocks;
+        });
+        section[index(x, y, z)] = material;
+        return this;
+    }
+
+    /**
+     * Sets every block between the two corners, both inclusive.
+     */
+    public MemoryBlockSource fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, Material material) {
+        for (int x = Math.min(minX, maxX); x <= Math.max(minX, maxX); x++) {
+            for (int y = Math.min(minY, maxY); y <= Math.max(minY, maxY); y++) {
+                for (int z = Math.min(minZ, maxZ); z <= Math.max(minZ, maxZ); z++) {
+                    this.set(x, y, z, material);
+                }
+            }
+        }
+
+        return this;
+    }
+
+    public void clear() {
+        this.sections.clear();
+    }
+
+    private static int index(int x, int y, int z) {
+        return (y & 15) << 8 | (z & 15) << 4 | x & 15;
+    }
+
+    private static long sectionKey(int sectionX, int sectionY, int sectionZ) {
+        return ((long) sectionX & 0x3FFFFFL) << 42 | ((long) sectionY & 0xFFFFFL) << 22 | (long) sectionZ & 0x3FFFFFL;
+    }
+}
@@ -0,0 +1,102 @@
+package com.laura.playground.utils.world;
+
+import java.util.Map;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+/**
+ * An immutable view of a set of chunk snapshots, safe to read from any thread.
+ * <br>
+ * Blocks in chunks that were not captured, and blocks outside the world's height range, read as AIR.
+ * <br>
+ * Traces read long runs of blocks from the same chunk, so each trace should read through its own {@link #reader()}, which keeps
+ * the last chunk it looked up to skip the map lookup. The source itself keeps no state, so threads sharing it never write to
+ * the same memory.
+ */
+public class SnapshotBlockSource implements BlockSource {
+    private final World world;
+    private final Map<Long, ChunkSnapshot> chunks;
+    private final int minHeight;
+    private final int maxHeight;
+
+    /**
+     * Must be created on the main thread, see {@link #chunkKey(int, int)} for the map's keys.
+     */
+    public SnapshotBlockSource(World world, Map<Long, ChunkSnapshot> chunks) {
+        this.world = world;
+        this.chunks = Map.copyOf(chunks);
+        this.minHeight = world.getMinHeight();
+        this.maxHeight = world.getMaxHeight();
+    }
+
+    public World getWorld() {
+        return this.world;
+    }
+
+    public Material getType(int x, int y, int z) {
+        if (y < this.minHeight || y >= this.maxHeight) {
+            return Material.AIR;
+        }
+
+        return getType(this.chunks.get(chunkKey(x >> 4, z >> 4)), x, y, z);
+    }
+
+    public BlockSource reader() {
+        return new SnapshotBlockSource.Reader(this);
+    }
+
+    private static Material getType(ChunkSnapshot chunk, int x, int y, int z) {
+        return chunk == null ? Material.AIR : chunk.getBlockType(x & 15, y, z & 15);
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return (long) chunkX & 0xFFFFFFFFL | ((long) chunkZ & 0xFFFFFFFFL) << 32;
+    }
+
+    public static int chunkX(long chunkKey) {
+        return (int) chunkKey;
+    }
+
+    public static int chunkZ(long chunkKey) {
+        return (int) (chunkKey >>> 32);
+    }
+
+    /**
+     * Reads through the snapshots for one trace, remembering the last chunk it looked up.
+     */
+    private static class Reader implements BlockSource {
+        private final SnapshotBlockSource source;
+        private long lastKey;
+        private ChunkSnapshot lastChunk;
+        private boolean hasLast;
+
+        private Reader(SnapshotBlockSource source) {
+            this.source = source;
+        }
+
+        public World getWorld() {
+            return this.source.world;
+        }
+
+        public Material getType(int x, int y, int z) {
+            if (y < this.source.minHeight || y >= this.source.maxHeight) {
+                return Material.AIR;
+            }
+
+            long key = chunkKey(x >> 4, z >> 4);
+            if (!this.hasLast || this.lastKey != key) {
+                this.lastKey = key;
+                this.lastChunk = this.source.chunks.get(key);
+                this.hasLast = true;
+            }
+
+            return SnapshotBlockSource.getType(this.lastChunk, x, y, z);
+        }
+
+        public BlockSource reader() {
+            return this.source.reader();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.laura.playground;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+/**
+ * Off-server stand-ins for the tests: a proxied World, with no blocks or entities of its own, that hands out proxied Blocks
+ * which only know their coordinates. Block types are read from a {@link com.laura.playground.utils.world.MemoryBlockSource}.
+ */
+public final class TestWorlds {
+
+    private TestWorlds() {
+    }
+
+    public static World world() {
+        UUID uid = UUID.randomUUID();
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getUID":
+                    return uid;
+                case "getBlockAt":
+                    return block((World) proxy, (Integer) args[0], (Integer) args[1], (Integer) args[2]);
+                case "getMinHeight":
+                    return -64;
+                case "getMaxHeight":
+                    return 320;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "TestWorld(" + uid + ")";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        };
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class}, handler);
+    }
+
+    public static Block block(World world, int x, int y, int z) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getWorld":
+                    return world;
+                case "getX":
+                    return x;
+                case "getY":
+                    return y;
+                case "getZ":
+                    return z;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "TestBlock(" + x + ", " + y + ", " + z + ")";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        };
+        return (Block) Proxy.newProxyInstance(Block.class.getClassLoader(), new Class<?>[]{Block.class}, handler);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return '\0';
+        } else if (type == float.class) {
+            return 0.0F;
+        } else if (type == double.class) {
+            return 0.0D;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.laura.playground.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.laura.playground.TestWorlds;
+import com.laura.playground.utils.geometry.Direction;
+import com.laura.playground.utils.world.MemoryBlockSource;
+
+import java.util.Random;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+class ArcSolverTest {
+    private static final int GROUND_Y = 64;
+    private static final double EYE_HEIGHT = 1.62D;
+    /**
+     * A Location yaw of 90 launches the arc towards +x.
+     */
+    private static final float EAST = 90.0F;
+
+    private final World world = TestWorlds.world();
+    private final MemoryBlockSource source = new MemoryBlockSource(this.world);
+
+    @Test
+    void landsOnFlatGround() {
+        this.source.fill(-16, GROUND_Y - 1, -16, 80, GROUND_Y - 1, 16, Material.STONE);
+        for (float pitch = -40.0F; pitch <= 60.0F; pitch += 10.0F) {
+            Trajectory trajectory = this.trajectory(0.5D, GROUND_Y + EYE_HEIGHT, 0.5D, EAST, pitch, Trajectory.ProjectileType.SNOWBALL);
+            TrajectoryResults results = trajectory.trace();
+
+            assertTrue(results.hitAnything(), "hit at pitch " + pitch);
+            assertEquals(Direction.UP, results.getImpactNormalDirection());
+            Location impact = results.getImpactPoint();
+            assertEquals(GROUND_Y, impact.getY(), 1.0E-6D);
+            assertEquals(0.5D, impact.getZ(), 1.0E-6D);
+            assertEquals(0.5D + forwardWhenBelow(trajectory, GROUND_Y - (GROUND_Y + EYE_HEIGHT)), impact.getX(), 1.0E-3D, "landing at pitch " + pitch);
+        }
+    }
+
+    @Test
+    void entersAWallThroughItsNearFace() {
+        this.source.fill(12, GROUND_Y, -8, 12, GROUND_Y + 40, 8, Material.STONE);
+        TrajectoryResults results = this.trajectory(0.5D, GROUND_Y + EYE_HEIGHT, 0.5D, EAST, 15.0F, Trajectory.ProjectileType.ARROW).trace();
+
+        assertTrue(results.hitAnything());
+        assertEquals(Direction.WEST, results.getImpactNormalDirection());
+        assertEquals(12.0D, results.getImpactPoint().getX(), 1.0E-6D);
+    }
+
+    @Test
+    void findsBlocksTheArcOnlyCutsTheCornerOf() {
+        ProjectileIntegrator integrator = this.trajectory(0.0D, 0.0D, 0.0D, EAST, 10.0F, Trajectory.ProjectileType.SNOWBALL).getIntegrator();
+        double[] offset = new double[2];
+        double[] next = new double[2];
+        for (double time = integrator.getApexTime() + 0.5D; time < integrator.getApexTime() + 3.0D; time += 0.05D) {
+            integrator.offsetAt(time, offset);
+            integrator.offsetAt(time + 1.0E-6D, next);
+            double descent = Math.atan2(offset[1] - next[1], next[0] - offset[0]);
+            // Start the arc so that at this time it leaves the block at (20, 79, 0) through its east face, depth below its top
+            // face, having been inside it for 0.16 blocks, more than the probes are apart
+            double depth = 0.16D * Math.sin(descent);
+            this.source.clear();
+            this.source.set(20, 79, 0, Material.STONE);
+            TrajectoryResults results = this.trajectory(21.0D - offset[0], 80.0D - depth - offset[1], 0.5D, EAST, 10.0F, Trajectory.ProjectileType.SNOWBALL).trace();
+
+            assertTrue(results.hitAnything(), "hit at time " + time);
+            assertEquals(Direction.UP, results.getImpactNormalDirection());
+            assertEquals(80.0D, results.getImpactPoint().getY(), 1.0E-6D);
+        }
+    }
+
+    @Test
+    void hitsNothingInAnEmptyWorld() {
+        TrajectoryResults results = this.trajectory(0.5D, GROUND_Y + EYE_HEIGHT, 0.5D, EAST, 20.0F, Trajectory.ProjectileType.ENDER_PEARL).trace();
+
+        assertFalse(results.hitAnything());
+        assertNull(results.getImpactPoint());
+        assertNotNull(results.getSamples());
+        assertTrue(results.getSamples().size() > 1);
+    }
+
+    @Test
+    void replayingFindsTheSameImpactAsAFreshTrace() {
+        Random random = new Random(5L);
+        this.source.fill(-48, GROUND_Y - 1, -48, 48, GROUND_Y - 1, 48, Material.STONE);
+        for (int x = -48; x <= 48; x++) {
+            for (int y = GROUND_Y; y < GROUND_Y + 16; y++) {
+                for (int z = -48; z <= 48; z++) {
+                    if (random.nextDouble() < 0.01D) {
+                        this.source.set(x, y, z, Material.STONE);
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < 400; i++) {
+            float yaw = random.nextFloat() * 360.0F;
+            float pitch = random.nextFloat() * 70.0F - 20.0F;
+            Trajectory.ProjectileType projectileType = Trajectory.ProjectileType.values()[i % Trajectory.ProjectileType.values().length];
+            TrajectoryResults previous = this.trajectory(0.5D, GROUND_Y + 16 + EYE_HEIGHT, 0.5D, yaw, pitch, projectileType).trace();
+
+            // The aim drifts a little, as it does between two ticks of a player holding a bow
+            float nextYaw = yaw + random.nextFloat() * 0.4F - 0.2F;
+            float nextPitch = pitch + random.nextFloat() * 0.4F - 0.2F;
+            TrajectoryResults fresh = this.trajectory(0.5D, GROUND_Y + 16 + EYE_HEIGHT, 0.5D, nextYaw, nextPitch, projectileType).trace();
+            TrajectoryResults replayed = this.trajectory(0.5D, GROUND_Y + 16 + EYE_HEIGHT, 0.5D, nextYaw, nextPitch, projectileType)
+                    .reusing(previous)
+                    .trace();
+
+            String aim = projectileType + " yaw " + nextYaw + " pitch " + nextPitch;
+            assertEquals(fresh.hitAnything(), replayed.hitAnything(), "hit of " + aim);
+            if (fresh.hitAnything()) {
+                assertEquals(fresh.getImpactNormalDirection(), replayed.getImpactNormalDirection(), "face of " + aim);
+                assertEquals(0.0D, fresh.getImpactPoint().distance(replayed.getImpactPoint()), 1.0E-3D, "impact of " + aim);
+            }
+        }
+    }
+
+    @Test
+    void replayingLooksAgainAtBlocksTheArcPassedBy() {
+        this.source.set(20, 79, 0, Material.STONE);
+        ProjectileIntegrator integrator = this.trajectory(0.0D, 0.0D, 0.0D, EAST, 10.0F, Trajectory.ProjectileType.SNOWBALL).getIntegrator();
+        double[] offset = new double[2];
+        double[] next = new double[2];
+        for (double time = integrator.getApexTime() + 0.5D; time < integrator.getApexTime() + 3.0D; time += 0.01D) {
+            integrator.offsetAt(time, offset);
+            integrator.offsetAt(time + 1.0E-6D, next);
+            double descent = Math.atan2(offset[1] - next[1], next[0] - offset[0]);
+            // The earlier arc passes just over the block's top east corner, which its chord may still clip, and the next one is
+            // lowered to cut through the corner for more than the probes are apart
+            double startY = 80.02D - offset[1];
+            TrajectoryResults previous = this.trajectory(21.0D - offset[0], startY, 0.5D, EAST, 10.0F, Trajectory.ProjectileType.SNOWBALL).trace();
+            assertFalse(previous.hitAnything());
+
+            double lowered = 0.02D + 0.16D * Math.sin(descent);
+            TrajectoryResults replayed = this.trajectory(21.0D - offset[0], startY - lowered, 0.5D, EAST, 10.0F, Trajectory.ProjectileType.SNOWBALL)
+                    .reusing(previous)
+                    .trace();
+
+            assertTrue(replayed.hitAnything(), "hit at time " + time);
+            assertEquals(80.0D, replayed.getImpactPoint().getY(), 1.0E-6D);
+        }
+    }
+
+    private Trajectory trajectory(double x, double y, double z, float yaw, float pitch, Trajectory.ProjectileType projectileType) {
+        return Trajectory.trajectory(new Location(this.world, x, y, z, yaw, pitch), projectileType)
+                .ignoreMaterials(Material.AIR)
+                .blockSource(this.source);
+    }
+
+    /**
+     * Steps along the descending arc until it is lower than the given height, then bisects for where it crosses it.
+     *
+     * @return the forward distance travelled by then
+     */
+    private static double forwardWhenBelow(Trajectory trajectory, double up) {
+        ProjectileIntegrator integrator = trajectory.getIntegrator();
+        double[] offset = new double[2];
+        double before = Math.max(0.0D, integrator.getApexTime());
+        double after = before;
+        do {
+            before = after;
+            after += 0.01D;
+            integrator.offsetAt(after, offset);
+        } while (offset[1] > up);
+
+        for (int i = 0; i < 60; i++) {
+            double mid = (before + after) / 2.0D;
+            integrator.offsetAt(mid, offset);
+            if (offset[1] > up) {
+                before = mid;
+            } else {
+                after = mid;
+            }
+        }
+
+        integrator.offsetAt(after, offset);
+        return offset[0];
+    }
+}
@@ -0,0 +1,87 @@
+package com.laura.playground.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.laura.playground.utils.Mathsf;
+
+import org.junit.jupiter.api.Test;
+
+class ShapeTableTest {
+    /**
+     * Offsets are stored as floats, which is all that moves a point at the sample times of a pitch on a bucket.
+     */
+    private static final double SAMPLE_TOLERANCE = 1.0E-3D;
+    /**
+     * Blending two pitch buckets linearly moves a point by up to this much for each unit of time since launch.
+     */
+    private static final double BLEND_TOLERANCE = 2.5E-4D;
+    /**
+     * Between samples points are interpolated, which moves them by this much at most once the curve has bent less sharply than
+     * the square root a splash potion's inertia of 0.5 starts with.
+     */
+    private static final double INTERPOLATED_TOLERANCE = 0.01D;
+    private static final double TIME_STEP = 0.05D;
+
+    @Test
+    void followsTheAnalyticCurve() {
+        for (Trajectory.ProjectileType projectileType : Trajectory.ProjectileType.values()) {
+            for (int level : new int[]{0, 7, ShapeTable.MAX_DRAW_LEVEL}) {
+                for (double pitch = -89.75D; pitch < 90.0D; pitch += 12.25D) {
+                    ProjectileIntegrator shape = ShapeTable.shape(projectileType, level, pitch);
+                    ProjectileIntegrator curve = curve(projectileType, level, pitch);
+                    String of = projectileType + " level " + level + " pitch " + pitch;
+                    for (int i = 0; i < 252; i++) {
+                        assertClose(curve, shape, i * TIME_STEP, SAMPLE_TOLERANCE, of);
+                        if (i >= 5) {
+                            assertClose(curve, shape, (i + 0.5D) * TIME_STEP, INTERPOLATED_TOLERANCE, of);
+                        }
+                    }
+
+                    assertEquals(curve.getApexTime(), shape.getApexTime(), SAMPLE_TOLERANCE);
+                }
+            }
+        }
+    }
+
+    @Test
+    void fallsBackToTheCurvePastTheTable() {
+        ProjectileIntegrator shape = ShapeTable.shape(Trajectory.ProjectileType.ARROW, ShapeTable.MAX_DRAW_LEVEL, 30.0D);
+        ProjectileIntegrator curve = curve(Trajectory.ProjectileType.ARROW, ShapeTable.MAX_DRAW_LEVEL, 30.0D);
+        double[] expected = new double[2];
+        double[] actual = new double[2];
+        for (double time = 12.6D; time < 20.0D; time += 0.3D) {
+            curve.offsetAt(time, expected);
+            shape.offsetAt(time, actual);
+            assertEquals(expected[0], actual[0], 1.0E-9D);
+            assertEquals(expected[1], actual[1], 1.0E-9D);
+        }
+    }
+
+    @Test
+    void ignoresTheDrawLevelOfSingleVelocityProjectiles() {
+        double[] full = new double[2];
+        double[] empty = new double[2];
+        ShapeTable.shape(Trajectory.ProjectileType.SNOWBALL, ShapeTable.MAX_DRAW_LEVEL, 20.0D).offsetAt(3.0D, full);
+        ShapeTable.shape(Trajectory.ProjectileType.SNOWBALL, 0, 20.0D).offsetAt(3.0D, empty);
+        assertEquals(full[0], empty[0], 0.0D);
+        assertEquals(full[1], empty[1], 0.0D);
+    }
+
+    private static void assertClose(ProjectileIntegrator curve, ProjectileIntegrator shape, double time, double tolerance, String of) {
+        double[] expected = new double[2];
+        double[] actual = new double[2];
+        curve.offsetAt(time, expected);
+        shape.offsetAt(time, actual);
+        assertEquals(expected[0], actual[0], tolerance + time * BLEND_TOLERANCE, "forward of " + of + " at time " + time);
+        assertEquals(expected[1], actual[1], tolerance + time * BLEND_TOLERANCE, "up of " + of + " at time " + time);
+    }
+
+    /**
+     * The curve a {@link Trajectory} of this type would use at this draw level and pitch, without the table.
+     */
+    private static AnalyticIntegrator curve(Trajectory.ProjectileType projectileType, int level, double pitch) {
+        double velocity = Mathsf.remap(0.0D, ShapeTable.MAX_DRAW_LEVEL, level, projectileType.getMinVelocity(), projectileType.getMaxVelocity());
+        double inertia = Mathsf.lerp(projectileType.getMinInertia(), projectileType.getMaxInertia(), Mathsf.iLerpClamped(0, 90, pitch));
+        return new AnalyticIntegrator(velocity, projectileType.getGravity(), inertia, Math.toRadians(pitch));
+    }
+}
@@ -0,0 +1,104 @@
+package com.laura.playground.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TickIntegratorTest {
+    private static final double EPSILON = 1.0E-9D;
+
+    @Test
+    void matchesTheServerTickByTick() {
+        for (Trajectory.ProjectileType projectileType : Trajectory.ProjectileType.values()) {
+            for (double pitch = -80.0D; pitch <= 80.0D; pitch += 20.0D) {
+                double pitchRads = Math.toRadians(pitch);
+                TickIntegrator integrator = TickIntegrator.of(projectileType, 0.75D, pitchRads);
+                double[][] stepped = step(projectileType.getLaunchSpeed() * 0.75D, projectileType.getTickGravity(), projectileType.getTickDrag(), pitchRads, 300);
+                double[] offset = new double[2];
+                for (int tick = 0; tick <= 300; tick++) {
+                    integrator.offsetAt(tick, offset);
+                    assertEquals(stepped[tick][0], offset[0], EPSILON * (1 + Math.abs(stepped[tick][0])), projectileType + " forward at tick " + tick);
+                    assertEquals(stepped[tick][1], offset[1], EPSILON * (1 + Math.abs(stepped[tick][1])), projectileType + " up at tick " + tick);
+                }
+            }
+        }
+    }
+
+    @Test
+    void movesStraightBetweenTicks() {
+        TickIntegrator integrator = TickIntegrator.of(Trajectory.ProjectileType.ARROW, 1.0D, Math.toRadians(30.0D));
+        double[] before = new double[2];
+        double[] after = new double[2];
+        double[] between = new double[2];
+        for (int tick = 0; tick < 50; tick++) {
+            integrator.offsetAt(tick, before);
+            integrator.offsetAt(tick + 1, after);
+            integrator.offsetAt(tick + 0.25D, between);
+            assertEquals(before[0] + (after[0] - before[0]) * 0.25D, between[0], EPSILON);
+            assertEquals(before[1] + (after[1] - before[1]) * 0.25D, between[1], EPSILON);
+        }
+    }
+
+    @Test
+    void peaksAtTheFirstTickItStopsRising() {
+        for (double pitch = 5.0D; pitch < 90.0D; pitch += 5.0D) {
+            double pitchRads = Math.toRadians(pitch);
+            TickIntegrator integrator = TickIntegrator.of(Trajectory.ProjectileType.SNOWBALL, 1.0D, pitchRads);
+            double[][] stepped = step(1.5D, 0.03D, 0.99D, pitchRads, 200);
+            int highest = 0;
+            for (int tick = 1; tick <= 200; tick++) {
+                if (stepped[tick][1] > stepped[highest][1]) {
+                    highest = tick;
+                }
+            }
+
+            assertEquals(highest, integrator.getApexTime(), "apex at " + pitch + " degrees");
+        }
+
+        assertTrue(TickIntegrator.of(Trajectory.ProjectileType.SNOWBALL, 1.0D, Math.toRadians(-10.0D)).getApexTime() < 0.0D);
+    }
+
+    @Test
+    void samplesWholeTicksLikeOffsetAt() {
+        TickIntegrator integrator = TickIntegrator.of(Trajectory.ProjectileType.SPLASH_POTION, 1.0D, Math.toRadians(15.0D));
+        double[] samples = new double[40];
+        double[] offset = new double[2];
+        integrator.sample(3.0D, 1.0D, 20, samples);
+        for (int i = 0; i < 20; i++) {
+            integrator.offsetAt(3 + i, offset);
+            assertEquals(offset[0], samples[i * 2], EPSILON);
+            assertEquals(offset[1], samples[i * 2 + 1], EPSILON);
+        }
+
+        integrator.sample(0.5D, 0.5D, 20, samples);
+        for (int i = 0; i < 20; i++) {
+            integrator.offsetAt(0.5D + 0.5D * i, offset);
+            assertEquals(offset[0], samples[i * 2], EPSILON);
+            assertEquals(offset[1], samples[i * 2 + 1], EPSILON);
+        }
+    }
+
+    /**
+     * Steps the projectile as the server does: move by the velocity, then apply drag, then gravity.
+     *
+     * @return the forward, up offset at every tick up to ticks
+     */
+    private static double[][] step(double speed, double gravity, double drag, double pitchRads, int ticks) {
+        double[][] offsets = new double[ticks + 1][2];
+        double forward = 0.0D;
+        double up = 0.0D;
+        double forwardSpeed = speed * Math.cos(pitchRads);
+        double upSpeed = speed * Math.sin(pitchRads);
+        for (int tick = 1; tick <= ticks; tick++) {
+            forward += forwardSpeed;
+            up += upSpeed;
+            forwardSpeed *= drag;
+            upSpeed = upSpeed * drag - gravity;
+            offsets[tick][0] = forward;
+            offsets[tick][1] = up;
+        }
+
+        return offsets;
+    }
+}
@@ -0,0 +1,47 @@
+package com.laura.playground.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.laura.playground.TestWorlds;
+import com.laura.playground.utils.world.MemoryBlockSource;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+class LineTraceTest {
+    private final World world = TestWorlds.world();
+    private final MemoryBlockSource source = new MemoryBlockSource(this.world);
+
+    @Test
+    void collectsNoPointsUnlessTracked() {
+        this.source.set(3, 0, 0, Material.STONE);
+        LineTraceResults results = this.lineTrace().track(Tracker.IMPACT).trace();
+
+        assertTrue(results.isHitAnything());
+        assertTrue(results.getTracePoints().isEmpty());
+        assertTrue(results.getPreImpactPoints().isEmpty());
+        assertTrue(results.getPostImpactPoints().isEmpty());
+    }
+
+    @Test
+    void collectsPointsAlongTheWholeLineWhenTracked() {
+        this.source.set(3, 0, 0, Material.STONE);
+        LineTraceResults results = this.lineTrace().track(Tracker.IMPACT, Tracker.POINTS).trace();
+
+        assertTrue(results.isHitAnything());
+        assertEquals(16, results.getTracePoints().size());
+        assertEquals(0.5D, results.getTracePoints().get(0).getX(), 1.0E-9D);
+        assertEquals(8.5D, results.getTracePoints().get(15).getX(), 1.0E-9D);
+        assertFalse(results.getPreImpactPoints().isEmpty());
+    }
+
+    private LineTrace lineTrace() {
+        return LineTrace.lineTrace(new Location(this.world, 0.5D, 0.5D, 0.5D), new Location(this.world, 8.5D, 0.5D, 0.5D), 2)
+                .blockSource(this.source)
+                .ignoreMaterials(Material.AIR);
+    }
+}
@@ -0,0 +1,81 @@
+package com.laura.playground.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class LongSetTest {
+
+    @Test
+    void keepsEveryValueAcrossRehashes() {
+        LongSet set = new LongSet(1);
+        Set<Long> expected = new LinkedHashSet<Long>();
+        Random random = new Random(7L);
+        for (int i = 0; i < 20000; i++) {
+            long value = random.nextInt(5000) * 0x100000000L + random.nextInt(4);
+            assertEquals(expected.add(value), set.add(value), "add " + value);
+        }
+
+        assertEquals(expected.size(), set.size());
+        int index = 0;
+        for (long value : expected) {
+            assertTrue(set.contains(value));
+            assertEquals(value, set.get(index++), "insertion order");
+        }
+
+        assertFalse(set.contains(-1L));
+        assertFalse(set.contains(5000L * 0x100000000L));
+    }
+
+    @Test
+    void findsValuesWhoseSlotsCollide() {
+        LongSet set = new LongSet();
+        long[] values = new long[]{0L, Long.MIN_VALUE, Long.MAX_VALUE, -1L, 1L, 1L << 32, 1L << 63 | 1L};
+        for (long value : values) {
+            assertTrue(set.add(value));
+        }
+
+        for (long value : values) {
+            assertFalse(set.add(value));
+            assertTrue(set.contains(value));
+        }
+
+        assertArrayEquals(values, set.toArray());
+    }
+
+    @Test
+    void clearsAndRefills() {
+        LongSet set = new LongSet(4);
+        for (long value = 0L; value < 100L; value++) {
+            set.add(value);
+        }
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(5L));
+        assertEquals(0, set.toArray().length);
+
+        assertTrue(set.add(99L));
+        assertTrue(set.add(5L));
+        assertEquals(2, set.size());
+        assertEquals(99L, set.get(0));
+        assertEquals(5L, set.get(1));
+        assertFalse(set.contains(6L));
+    }
+
+    @Test
+    void getChecksBounds() {
+        LongSet set = new LongSet();
+        set.add(3L);
+        assertThrows(IndexOutOfBoundsException.class, () -> set.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.get(-1));
+    }
+}
@@ -0,0 +1,121 @@
+package com.laura.playground.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ParticleSchedulerTest {
+
+    @Test
+    void grantsEverythingUnderBudget() {
+        ParticleScheduler scheduler = new ParticleScheduler(100);
+        ParticleScheduler.Share first = scheduler.request(30, 1.0D);
+        ParticleScheduler.Share second = scheduler.request(60, 1.0D);
+        scheduler.allocate();
+        assertEquals(30, first.getAllowance());
+        assertEquals(60, second.getAllowance());
+        assertEquals(1.0D, first.getLevel());
+        assertEquals(0, scheduler.getLastDropped());
+    }
+
+    @Test
+    void splitsEquallyBetweenEqualWeights() {
+        ParticleScheduler scheduler = new ParticleScheduler(100);
+        ParticleScheduler.Share first = scheduler.request(80, 1.0D);
+        ParticleScheduler.Share second = scheduler.request(80, 1.0D);
+        scheduler.allocate();
+        assertEquals(50, first.getAllowance());
+        assertEquals(50, second.getAllowance());
+        assertEquals(0.625D, first.getLevel(), 1.0E-9D);
+        assertEquals(60, scheduler.getLastDropped());
+    }
+
+    @Test
+    void sharesWhatSmallRequestsLeave() {
+        ParticleScheduler scheduler = new ParticleScheduler(100);
+        ParticleScheduler.Share small = scheduler.request(10, 1.0D);
+        ParticleScheduler.Share first = scheduler.request(80, 1.0D);
+        ParticleScheduler.Share second = scheduler.request(80, 1.0D);
+        scheduler.allocate();
+        assertEquals(10, small.getAllowance());
+        assertEquals(45, first.getAllowance());
+        assertEquals(45, second.getAllowance());
+    }
+
+    @Test
+    void splitsByWeight() {
+        ParticleScheduler scheduler = new ParticleScheduler(90);
+        ParticleScheduler.Share heavy = scheduler.request(100, 2.0D);
+        ParticleScheduler.Share light = scheduler.request(100, 1.0D);
+        scheduler.allocate();
+        assertEquals(60, heavy.getAllowance());
+        assertEquals(30, light.getAllowance());
+    }
+
+    @Test
+    void neverGoesOverBudgetAndNobodyGetsLessThanTheirFairShare() {
+        Random random = new Random(3L);
+        ParticleScheduler scheduler = new ParticleScheduler();
+        for (int round = 0; round < 500; round++) {
+            int budget = random.nextInt(5000);
+            scheduler.setTickBudget(budget);
+            List<ParticleScheduler.Share> shares = new ArrayList<ParticleScheduler.Share>();
+            List<Double> weights = new ArrayList<Double>();
+            double totalWeight = 0.0D;
+            int demanded = 0;
+            int requests = 1 + random.nextInt(20);
+            for (int i = 0; i < requests; i++) {
+                double weight = 0.5D + random.nextDouble() * 2.0D;
+                ParticleScheduler.Share share = scheduler.request(random.nextInt(1000), weight);
+                shares.add(share);
+                weights.add(weight);
+                totalWeight += weight;
+                demanded += share.getDemand();
+            }
+
+            scheduler.allocate();
+            int allowed = 0;
+            for (int i = 0; i < shares.size(); i++) {
+                ParticleScheduler.Share share = shares.get(i);
+                double fairShare = Math.min(share.getDemand(), budget * weights.get(i) / totalWeight);
+                assertTrue(share.getAllowance() <= share.getDemand());
+                assertTrue(share.getAllowance() >= fairShare - 1.0D, "granted " + share.getAllowance() + " of a fair share of " + fairShare);
+                allowed += share.getAllowance();
+            }
+
+            assertTrue(allowed <= budget, "allowed " + allowed + " of " + budget);
+            assertEquals(demanded - allowed, scheduler.getLastDropped());
+            // Rounding down loses at most one particle per request
+            assertTrue(allowed >= Math.min(budget, demanded) - requests);
+        }
+    }
+
+    @Test
+    void countsDroppedParticlesUntilReset() {
+        ParticleScheduler scheduler = new ParticleScheduler(10);
+        scheduler.request(15, 1.0D);
+        scheduler.allocate();
+        scheduler.request(12, 1.0D);
+        scheduler.allocate();
+        assertEquals(2, scheduler.getLastDropped());
+        assertEquals(7L, scheduler.getDropped());
+
+        scheduler.allocate();
+        assertEquals(0, scheduler.getLastDropped());
+        scheduler.reset();
+        assertEquals(0L, scheduler.getDropped());
+    }
+
+    @Test
+    void levelIsFullForNothingAsked() {
+        ParticleScheduler scheduler = new ParticleScheduler(0);
+        ParticleScheduler.Share share = scheduler.request(0, 1.0D);
+        scheduler.allocate();
+        assertEquals(1.0D, share.getLevel());
+    }
+}
@@ -0,0 +1,167 @@
+package com.laura.playground.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.laura.playground.TestWorlds;
+import com.laura.playground.utils.geometry.Direction;
+import com.laura.playground.utils.world.BlockKey;
+import com.laura.playground.utils.world.MemoryBlockSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+class TraceCursorTest {
+    private static final double EPSILON = 1.0E-9D;
+
+    private final World world = TestWorlds.world();
+    private final MemoryBlockSource source = new MemoryBlockSource(this.world);
+
+    @Test
+    void walksAlongAnAxis() {
+        TraceCursor cursor = this.cursor(0.5D, 0.5D, 0.5D, 5.5D, 0.5D, 0.5D);
+        for (int x = 0; x <= 5; x++) {
+            assertTrue(cursor.next());
+            assertEquals(BlockKey.pack(x, 0, 0), cursor.getBlockKey());
+            assertEquals(x == 0 ? Direction.SELF : Direction.WEST, cursor.getEntryFace());
+            assertEquals(x == 0 ? 0.0D : (x - 0.5D) / 5.0D, cursor.getEntryRatio(), EPSILON);
+        }
+
+        assertFalse(cursor.next());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void walksStraightUpAndDown() {
+        List<Long> up = this.keys(this.cursor(2.25D, -1.5D, 7.75D, 2.25D, 2.5D, 7.75D));
+        assertEquals(List.of(BlockKey.pack(2, -2, 7), BlockKey.pack(2, -1, 7), BlockKey.pack(2, 0, 7), BlockKey.pack(2, 1, 7), BlockKey.pack(2, 2, 7)), up);
+
+        TraceCursor down = this.cursor(2.25D, 2.5D, 7.75D, 2.25D, -1.5D, 7.75D);
+        assertTrue(down.next());
+        assertTrue(down.next());
+        assertEquals(Direction.UP, down.getEntryFace());
+        assertEquals(2.0D, down.getEntryY(), EPSILON);
+    }
+
+    @Test
+    void walksNegativeCoordinates() {
+        TraceCursor cursor = this.cursor(-0.5D, -0.5D, -0.5D, -3.5D, -0.5D, -0.5D);
+        for (int x = -1; x >= -4; x--) {
+            assertTrue(cursor.next());
+            assertEquals(BlockKey.pack(x, -1, -1), cursor.getBlockKey());
+            assertEquals(x == -1 ? Direction.SELF : Direction.EAST, cursor.getEntryFace());
+            if (x < -1) {
+                assertEquals(x + 1, cursor.getEntryX(), EPSILON);
+            }
+        }
+
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void staysInOneBlock() {
+        TraceCursor cursor = this.cursor(-3.1D, 4.2D, -0.9D, -3.8D, 4.9D, -0.2D);
+        assertTrue(cursor.next());
+        assertEquals(BlockKey.pack(-4, 4, -1), cursor.getBlockKey());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void stepsOneAxisAtATimeThroughCorners() {
+        List<Long> keys = this.keys(this.cursor(-1.5D, 0.5D, -1.5D, 1.5D, 0.5D, 1.5D));
+        assertEquals(7, keys.size());
+        assertEquals(BlockKey.pack(-2, 0, -2), (long) keys.get(0));
+        assertEquals(BlockKey.pack(1, 0, 1), (long) keys.get(keys.size() - 1));
+        for (int i = 1; i < keys.size(); i++) {
+            assertEquals(1, distance(keys.get(i - 1), keys.get(i)));
+        }
+    }
+
+    @Test
+    void visitsEveryBlockOfARandomLine() {
+        Random random = new Random(11L);
+        for (int i = 0; i < 2000; i++) {
+            double x0 = random.nextDouble() * 40.0D - 20.0D;
+            double y0 = random.nextDouble() * 40.0D - 20.0D;
+            double z0 = random.nextDouble() * 40.0D - 20.0D;
+            // Some lines keep one or two coordinates fixed
+            double x1 = i % 3 == 0 ? x0 : random.nextDouble() * 40.0D - 20.0D;
+            double y1 = i % 5 == 0 ? y0 : random.nextDouble() * 40.0D - 20.0D;
+            double z1 = random.nextDouble() * 40.0D - 20.0D;
+            TraceCursor cursor = this.cursor(x0, y0, z0, x1, y1, z1);
+
+            long previous = BlockKey.NONE;
+            double previousRatio = 0.0D;
+            while (cursor.next()) {
+                long key = cursor.getBlockKey();
+                if (previous == BlockKey.NONE) {
+                    assertEquals(BlockKey.pack(Location.locToBlock(x0), Location.locToBlock(y0), Location.locToBlock(z0)), key);
+                } else {
+                    assertEquals(1, distance(previous, key), "blocks are face neighbours");
+                    assertTrue(cursor.getEntryRatio() >= previousRatio, "entry ratios only grow");
+                }
+
+                // The line enters each block within its bounds
+                double[] entry = new double[]{cursor.getEntryX(), cursor.getEntryY(), cursor.getEntryZ()};
+                int[] block = new int[]{cursor.getX(), cursor.getY(), cursor.getZ()};
+                for (int axis = 0; axis < 3; axis++) {
+                    assertTrue(entry[axis] >= block[axis] - EPSILON && entry[axis] <= block[axis] + 1 + EPSILON);
+                }
+
+                previous = key;
+                previousRatio = cursor.getEntryRatio();
+            }
+
+            assertEquals(BlockKey.pack(Location.locToBlock(x1), Location.locToBlock(y1), Location.locToBlock(z1)), previous);
+        }
+    }
+
+    @Test
+    void stopsAtTheFirstSolidBlock() {
+        this.source.set(3, 0, 0, Material.STONE);
+        this.source.set(5, 0, 0, Material.STONE);
+        TraceCursor cursor = LineTrace.lineTrace(this.location(0.5D, 0.5D, 0.5D), this.location(8.5D, 0.5D, 0.5D), 1)
+                .blockSource(this.source)
+                .ignoreMaterials(Material.AIR)
+                .cursor();
+
+        assertTrue(cursor.nextImpact());
+        assertEquals(BlockKey.pack(3, 0, 0), cursor.getBlockKey());
+        assertEquals(Material.STONE, cursor.getType());
+        assertEquals(Direction.WEST, cursor.getEntryFace());
+        assertEquals(3.0D, cursor.getEntryX(), EPSILON);
+        assertTrue(cursor.nextImpact());
+        assertEquals(BlockKey.pack(5, 0, 0), cursor.getBlockKey());
+        assertFalse(cursor.nextImpact());
+    }
+
+    private TraceCursor cursor(double x0, double y0, double z0, double x1, double y1, double z1) {
+        return LineTrace.lineTrace(this.location(x0, y0, z0), this.location(x1, y1, z1), 1)
+                .blockSource(this.source)
+                .cursor();
+    }
+
+    private Location location(double x, double y, double z) {
+        return new Location(this.world, x, y, z);
+    }
+
+    private List<Long> keys(TraceCursor cursor) {
+        List<Long> keys = new ArrayList<Long>();
+        while (cursor.next()) {
+            keys.add(cursor.getBlockKey());
+        }
+
+        return keys;
+    }
+
+    private static int distance(long a, long b) {
+        return Math.abs(BlockKey.getX(a) - BlockKey.getX(b)) + Math.abs(BlockKey.getY(a) - BlockKey.getY(b)) + Math.abs(BlockKey.getZ(a) - BlockKey.getZ(b));
+    }
+}
@@ -0,0 +1,67 @@
+package com.laura.playground.utils.world;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+class BlockKeyTest {
+    private static final int MIN_XZ = -(1 << 25);
+    private static final int MAX_XZ = (1 << 25) - 1;
+    private static final int MIN_Y = -2048;
+    private static final int MAX_Y = 2047;
+
+    @Test
+    void packsAndUnpacksAtTheLimits() {
+        int[] horizontal = new int[]{MIN_XZ, MIN_XZ + 1, -30000000, -1, 0, 1, 30000000, MAX_XZ - 1, MAX_XZ};
+        int[] vertical = new int[]{MIN_Y, MIN_Y + 1, -64, -1, 0, 1, 319, MAX_Y - 1, MAX_Y};
+        for (int x : horizontal) {
+            for (int y : vertical) {
+                for (int z : horizontal) {
+                    long key = BlockKey.pack(x, y, z);
+                    assertEquals(x, BlockKey.getX(key), "x of " + x + ", " + y + ", " + z);
+                    assertEquals(y, BlockKey.getY(key), "y of " + x + ", " + y + ", " + z);
+                    assertEquals(z, BlockKey.getZ(key), "z of " + x + ", " + y + ", " + z);
+                }
+            }
+        }
+    }
+
+    @Test
+    void neighboursHaveDifferentKeys() {
+        int[] corners = new int[]{MIN_XZ, -1, 0, MAX_XZ};
+        int[] heights = new int[]{MIN_Y, -1, 0, MAX_Y};
+        for (int x : corners) {
+            for (int y : heights) {
+                for (int z : corners) {
+                    long key = BlockKey.pack(x, y, z);
+                    if (x < MAX_XZ) {
+                        assertNotEquals(key, BlockKey.pack(x + 1, y, z));
+                    }
+
+                    if (y < MAX_Y) {
+                        assertNotEquals(key, BlockKey.pack(x, y + 1, z));
+                    }
+
+                    if (z < MAX_XZ) {
+                        assertNotEquals(key, BlockKey.pack(x, y, z + 1));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void wrapsPastTheLimits() {
+        assertEquals(BlockKey.pack(MIN_XZ, 0, 0), BlockKey.pack(MAX_XZ + 1, 0, 0));
+        assertEquals(BlockKey.pack(0, 0, MIN_XZ), BlockKey.pack(0, 0, MAX_XZ + 1));
+        assertEquals(BlockKey.pack(0, MIN_Y, 0), BlockKey.pack(0, MAX_Y + 1, 0));
+    }
+
+    @Test
+    void noneIsOutsideTheWorldBorder() {
+        assertEquals(MIN_XZ, BlockKey.getX(BlockKey.NONE));
+        assertEquals(0, BlockKey.getY(BlockKey.NONE));
+        assertEquals(0, BlockKey.getZ(BlockKey.NONE));
+    }
+}
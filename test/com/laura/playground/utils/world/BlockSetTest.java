@@ -0,0 +1,76 @@
+package com.laura.playground.utils.world;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.laura.playground.TestWorlds;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.junit.jupiter.api.Test;
+
+class BlockSetTest {
+
+    @Test
+    void addsBlocksByCoordinates() {
+        World world = TestWorlds.world();
+        BlockSet set = new BlockSet();
+        assertTrue(set.add(TestWorlds.block(world, 1, 2, 3)));
+        assertFalse(set.add(TestWorlds.block(world, 1, 2, 3)));
+        assertFalse(set.add(BlockKey.pack(1, 2, 3)));
+        assertTrue(set.contains(TestWorlds.block(world, 1, 2, 3)));
+        assertTrue(set.contains(1, 2, 3));
+        assertFalse(set.contains(1, 2, 4));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void keepsOrderAcrossRehashes() {
+        BlockSet set = new BlockSet();
+        List<Long> keys = new ArrayList<Long>();
+        for (int x = -40; x < 40; x++) {
+            for (int y = -64; y < 320; y += 37) {
+                long key = BlockKey.pack(x, y, -x * 3);
+                keys.add(key);
+                assertTrue(set.add(key));
+            }
+        }
+
+        assertEquals(keys.size(), set.size());
+        long[] array = set.toKeyArray();
+        for (int i = 0; i < keys.size(); i++) {
+            long key = keys.get(i);
+            assertEquals(key, set.getKey(i));
+            assertEquals(key, array[i]);
+            assertTrue(set.contains(key));
+        }
+    }
+
+    @Test
+    void addAllReportsDuplicates() {
+        World world = TestWorlds.world();
+        BlockSet set = new BlockSet();
+        assertTrue(set.addAll(List.of(TestWorlds.block(world, 0, 0, 0), TestWorlds.block(world, 0, 1, 0))));
+        assertFalse(set.addAll(List.of(TestWorlds.block(world, 0, 2, 0), TestWorlds.block(world, 0, 1, 0))));
+        assertArrayEquals(new long[]{BlockKey.pack(0, 0, 0), BlockKey.pack(0, 1, 0), BlockKey.pack(0, 2, 0)}, set.toKeyArray());
+    }
+
+    @Test
+    void createsBlocksThroughTheSource() {
+        BlockSet set = new BlockSet();
+        set.add(BlockKey.pack(-5, 70, 9));
+        set.add(BlockKey.pack(4, -64, -2));
+
+        ArrayList<Block> blocks = set.asArrayList(new MemoryBlockSource(TestWorlds.world()));
+        assertEquals(2, blocks.size());
+        assertEquals(BlockKey.pack(-5, 70, 9), BlockKey.pack(blocks.get(0)));
+        assertEquals(BlockKey.pack(4, -64, -2), BlockKey.pack(blocks.get(1)));
+
+        assertTrue(set.asArrayList(new MemoryBlockSource()).isEmpty());
+    }
+}